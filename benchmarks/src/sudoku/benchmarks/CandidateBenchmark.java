@@ -0,0 +1,80 @@
+package sudoku.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.CandidateKernel;
+import sudoku.ScalarCandidateKernel;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares working out every candidate mask of a board one cell at a time and a vector of cells at a time
+ * The boards are seeded puzzles of each size with 60% of the cells emptied, enough of them that the branches of the
+ * scalar kernel cannot be learned. One operation computes the candidates and the most constrained cell of one board.
+ * The fork adds the incubating vector module, without which the VECTOR setup fails rather than measure the fallback.
+ * @author Ben Cullivan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class CandidateBenchmark {
+
+    private static final int BOARDS = 256;
+    private static final double BLANK_SHARE = 0.6;
+    private static final long SEED = 42;
+
+    @Param({"9", "16", "25", "36"})
+    public int n;
+
+    @Param({"SCALAR", "VECTOR"})
+    public String kernel;
+
+    private CandidateKernel candidateKernel;
+    private byte[] boards;
+    private long[] candidates;
+    private int next;
+
+    @Setup
+    public void setup() {
+        switch (kernel) {
+            case "SCALAR": candidateKernel = new ScalarCandidateKernel(); break;
+            case "VECTOR": candidateKernel = CandidateKernel.best(); break;
+            default: throw new IllegalArgumentException("Unknown kernel " + kernel);
+        }
+        if (kernel.equals("VECTOR") && candidateKernel instanceof ScalarCandidateKernel) {
+            throw new IllegalStateException("The vector kernel is not available on this JVM.");
+        }
+
+        // pack the boards back to back, the layout batch callers hand to the kernel
+        SplittableRandom random = new SplittableRandom(SEED);
+        int cells = n * n;
+        boards = new byte[BOARDS * cells];
+        for (int b = 0; b < BOARDS; b++) {
+            int[][] grid = ScalingBenchmark.fullGrid(n, random);
+            for (int cell = 0; cell < cells; cell++) {
+                if (random.nextDouble() >= BLANK_SHARE) boards[b * cells + cell] = (byte) grid[cell / n][cell % n];
+            }
+        }
+        candidates = new long[cells];
+    }
+
+    @Benchmark
+    public int computeCandidates() {
+        int board = next;
+        next = (board + 1) % BOARDS;
+        return candidateKernel.compute(boards, board * n * n, n, candidates);
+    }
+}
@@ -0,0 +1,81 @@
+package sudoku.benchmarks;
+
+import sudoku.DancingLinksSolver;
+import sudoku.SudokuSolver;
+
+/**
+ * Fixed puzzle sets the benchmarks run on, so results can be compared between runs and engines
+ * Puzzles are written in the PuzzleReader text format.
+ * @author Ben Cullivan
+ */
+public enum Corpus {
+
+    EASY(9,
+            "074060210026513090900070080000100000030982040000007000080050009060328570052090460",
+            "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..",
+            "..3.2.6..9..3.5..1..18.64....81.29..7.......8..67.82....26.95..8..2.3..9..5.1.3.."),
+
+    HARD(9,
+            "600000030300100400025003060000902000107000604000701000060300810008007006040000005",
+            "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+            "52...6.........7.13...........4..8..6......5...........418.........3..2...87.....",
+            "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4.."),
+
+    SIXTEEN(16,
+            "A6.2B..8.47.5.9..47.A.1....C.3F2..F85E9.A6..G.7...9CG.72B3F....8.A.6..837..4..C..GE..A.6.5..F.2.F"
+                    + "...9......6.G.49.C...2.F...1..6...138.....7E.5.4E....A1....32B.....EC596.A14D...C5..2G7.EBF68.1"
+                    + "2.6..F3.D7..C9E..74GD.6.C98.2..B8F3BC.E52.6A..4.C..5.7..EF.B8.6.");
+
+    private final int n;
+    private final String[] puzzles;
+
+    Corpus(int n, String... puzzles) {
+        this.n = n;
+        this.puzzles = puzzles;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * @return a new array holding every puzzle of the corpus
+     */
+    public int[][][] load() {
+        int[][][] sudokus = new int[puzzles.length][n][n];
+        for (int p = 0; p < puzzles.length; p++) {
+            for (int cell = 0; cell < n * n; cell++) {
+                char c = puzzles[p].charAt(cell);
+                sudokus[p][cell / n][cell % n] = c == '.' ? 0 : Character.digit(c, 36);
+            }
+        }
+        return sudokus;
+    }
+
+    /**
+     * @return a new array holding the solution of every puzzle of the corpus
+     */
+    public int[][][] solutions() {
+        int[][][] solutions = load();
+        DancingLinksSolver engine = new DancingLinksSolver();
+        for (int[][] sudoku : solutions) {
+            if (!SudokuSolver.solve(sudoku, n, engine)) {
+                throw new IllegalStateException("Corpus puzzle is not solvable.");
+            }
+        }
+        return solutions;
+    }
+
+    /**
+     * Copies every puzzle into preallocated scratch arrays of the same shape
+     * @param from the puzzles
+     * @param to the arrays to overwrite
+     */
+    public static void copy(int[][][] from, int[][][] to) {
+        for (int p = 0; p < from.length; p++) {
+            for (int i = 0; i < from[p].length; i++) {
+                System.arraycopy(from[p][i], 0, to[p][i], 0, from[p][i].length);
+            }
+        }
+    }
+}
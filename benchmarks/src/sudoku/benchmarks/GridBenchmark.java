@@ -0,0 +1,84 @@
+package sudoku.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.BitGrid;
+import sudoku.HashGrid;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the constraint stores on the operations the backtracking search performs at every node
+ * One operation checks every number in every empty cell of the first corpus puzzle and adds then removes each
+ * valid one, which is the work of one full level sweep of the search.
+ * @author Ben Cullivan
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GridBenchmark {
+
+    @Param({"EASY", "HARD", "SIXTEEN"})
+    public Corpus corpus;
+
+    private int[][] sudoku;
+    private int n;
+    private HashGrid hashGrid;
+    private BitGrid bitGrid;
+
+    @Setup
+    public void setup() {
+        sudoku = corpus.load()[0];
+        n = corpus.getN();
+        hashGrid = new HashGrid(sudoku, n);
+        bitGrid = new BitGrid(sudoku, n);
+    }
+
+    @Benchmark
+    public int hashGrid() {
+        int valid = 0;
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                if (sudoku[row][column] != 0) continue;
+                for (int num = 1; num <= n; num++) {
+                    if (hashGrid.isValidPlacement(num, row, column)) {
+                        hashGrid.add(num, row, column);
+                        hashGrid.remove(num, row, column);
+                        valid++;
+                    }
+                }
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int bitGrid() {
+        int valid = 0;
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                if (sudoku[row][column] != 0) continue;
+                for (int num = 1; num <= n; num++) {
+                    if (bitGrid.isValidPlacement(num, row, column)) {
+                        bitGrid.add(num, row, column);
+                        bitGrid.remove(num, row, column);
+                        valid++;
+                    }
+                }
+            }
+        }
+        return valid;
+    }
+}
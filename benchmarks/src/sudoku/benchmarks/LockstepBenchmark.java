@@ -0,0 +1,84 @@
+package sudoku.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.Board;
+import sudoku.DancingLinksSolver;
+import sudoku.Difficulty;
+import sudoku.LockstepSolver;
+import sudoku.PropagatingSolver;
+import sudoku.PuzzleGenerator;
+import sudoku.SolverEngine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares solving a corpus 64 boards at a time in lockstep with solving it one board at a time
+ * The corpus is generated from a fixed seed at each difficulty, and the score is the time per puzzle.
+ * @author Ben Cullivan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class LockstepBenchmark {
+
+    private static final int PUZZLES = 1024;
+    private static final long SEED = 42;
+
+    @Param({"EASY", "MEDIUM"})
+    public Difficulty difficulty;
+
+    @Param({"LOCKSTEP", "PROPAGATION", "DANCING_LINKS"})
+    public String engine;
+
+    private LockstepSolver lockstep;
+    private SolverEngine solver;
+    private int[][][] puzzles;
+    private int[][][] scratch;
+    private List<int[][]> batch;
+
+    @Setup
+    public void setup() {
+        switch (engine) {
+            case "LOCKSTEP": lockstep = new LockstepSolver(); break;
+            case "PROPAGATION": solver = new PropagatingSolver(); break;
+            case "DANCING_LINKS": solver = new DancingLinksSolver(); break;
+            default: throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+        List<Board> boards = PuzzleGenerator.generateAll(9, difficulty, PUZZLES, SEED);
+        puzzles = new int[PUZZLES][][];
+        scratch = new int[PUZZLES][9][9];
+        for (int p = 0; p < PUZZLES; p++) puzzles[p] = boards.get(p).toArray();
+        batch = Arrays.asList(scratch);
+    }
+
+    /**
+     * One operation solves one puzzle
+     */
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public long solve() {
+        Corpus.copy(puzzles, scratch);
+        if (lockstep != null) return lockstep.solveAll(batch, 9).getSolvedCount();
+        int solved = 0;
+        for (int[][] sudoku : scratch) {
+            if (solver.solve(sudoku, 9)) solved++;
+        }
+        return solved;
+    }
+}
@@ -0,0 +1,118 @@
+package sudoku.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.DancingLinksSolver;
+import sudoku.IterativeSolver;
+import sudoku.PropagatingSolver;
+import sudoku.SolverEngine;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the engines scale with the board size, from 9x9 up to 36x36
+ * The puzzles are shuffled copies of a patterned grid with a fixed share of the cells emptied, built from a fixed
+ * seed so every size is measured on the same kind of puzzle from run to run. Emptying much more than 40% of a 36x36
+ * grid makes some puzzles take minutes for every engine, which would measure luck rather than scaling.
+ * @author Ben Cullivan
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScalingBenchmark {
+
+    private static final int PUZZLES = 4;
+    private static final double BLANK_SHARE = 0.4;
+    private static final long SEED = 42;
+
+    @Param({"9", "16", "25", "36"})
+    public int n;
+
+    @Param({"ITERATIVE", "PROPAGATION", "DANCING_LINKS"})
+    public String engine;
+
+    private SolverEngine solver;
+    private int[][][] puzzles;
+    private int[][][] scratch;
+
+    @Setup
+    public void setup() {
+        switch (engine) {
+            case "ITERATIVE": solver = new IterativeSolver(); break;
+            case "PROPAGATION": solver = new PropagatingSolver(); break;
+            case "DANCING_LINKS": solver = new DancingLinksSolver(); break;
+            default: throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+        SplittableRandom random = new SplittableRandom(SEED);
+        puzzles = new int[PUZZLES][][];
+        scratch = new int[PUZZLES][n][n];
+        for (int p = 0; p < PUZZLES; p++) {
+            puzzles[p] = fullGrid(n, random);
+            for (int[] row : puzzles[p]) {
+                for (int column = 0; column < n; column++) {
+                    if (random.nextDouble() < BLANK_SHARE) row[column] = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * One operation solves every puzzle once
+     */
+    @Benchmark
+    public int solve() {
+        Corpus.copy(puzzles, scratch);
+        int solved = 0;
+        for (int[][] sudoku : scratch) {
+            if (solver.solve(sudoku, n)) solved++;
+        }
+        return solved;
+    }
+
+    /**
+     * @param n the height and width of the grid
+     * @param random the source of randomness
+     * @return a valid complete grid with its numbers relabeled and its rows shuffled inside their bands
+     */
+    static int[][] fullGrid(int n, SplittableRandom random) {
+        int root = (int) Math.round(Math.sqrt(n));
+        int[] labels = shuffled(n, random);
+        int[][] grid = new int[n][n];
+        for (int band = 0; band < root; band++) {
+            int[] order = shuffled(root, random);
+            for (int i = 0; i < root; i++) {
+                int row = band * root + i;
+                int source = band * root + order[i];
+                for (int column = 0; column < n; column++) {
+                    grid[row][column] = labels[(root * (source % root) + source / root + column) % n] + 1;
+                }
+            }
+        }
+        return grid;
+    }
+
+    private static int[] shuffled(int length, SplittableRandom random) {
+        int[] array = new int[length];
+        for (int i = 0; i < length; i++) array[i] = i;
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+        return array;
+    }
+}
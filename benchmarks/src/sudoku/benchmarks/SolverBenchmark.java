@@ -0,0 +1,101 @@
+package sudoku.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.BacktrackingSolver;
+import sudoku.CachingSolver;
+import sudoku.DancingLinksSolver;
+import sudoku.IterativeSolver;
+import sudoku.PropagatingSolver;
+import sudoku.SearchOrder;
+import sudoku.SolveCache;
+import sudoku.SolverEngine;
+import sudoku.SudokuSolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long each engine takes to solve a whole corpus
+ * One operation solves every puzzle of the corpus once. The nodes counter reports the search nodes the engine
+ * visited, so a change in search behaviour shows up even when the timing noise hides it.
+ * @author Ben Cullivan
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    /**
+     * RECURSIVE is the static SudokuSolver.solve, the rest are SolverEngines
+     * CACHED answers every puzzle from the cache after the first operation, so it measures canonicalization.
+     */
+    @Param({"RECURSIVE", "ROW_MAJOR", "MRV", "ITERATIVE", "PROPAGATION", "DANCING_LINKS", "CACHED"})
+    public String engine;
+
+    @Param({"EASY", "HARD", "SIXTEEN"})
+    public Corpus corpus;
+
+    private SolverEngine solver;
+    private int[][][] puzzles;
+    private int[][][] scratch;
+
+    /**
+     * Search nodes visited, reported next to the throughput
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        switch (engine) {
+            case "RECURSIVE": solver = null; break;
+            case "ROW_MAJOR": solver = new BacktrackingSolver(SearchOrder.ROW_MAJOR); break;
+            case "MRV": solver = new BacktrackingSolver(SearchOrder.MRV); break;
+            case "ITERATIVE": solver = new IterativeSolver(); break;
+            case "PROPAGATION": solver = new PropagatingSolver(); break;
+            case "DANCING_LINKS": solver = new DancingLinksSolver(); break;
+            case "CACHED": solver = new CachingSolver(new DancingLinksSolver(), new SolveCache(1024)); break;
+            default: throw new IllegalArgumentException("Unknown engine " + engine);
+        }
+        puzzles = corpus.load();
+        scratch = corpus.load();
+    }
+
+    @Benchmark
+    public int solveCorpus(Nodes counters) {
+        Corpus.copy(puzzles, scratch);
+        int solved = 0;
+        int n = corpus.getN();
+        for (int[][] sudoku : scratch) {
+            if (solver == null) {
+                if (SudokuSolver.solve(sudoku, n)) solved++;
+            } else {
+                if (solver.solve(sudoku, n)) solved++;
+                counters.nodes += solver.getNodeCount();
+            }
+        }
+        return solved;
+    }
+}
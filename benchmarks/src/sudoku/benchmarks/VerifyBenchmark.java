@@ -0,0 +1,82 @@
+package sudoku.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import sudoku.SudokuSolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures verifying the solutions of a corpus one at a time and in a single batch
+ * One operation verifies every solution of the corpus.
+ * @author Ben Cullivan
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class VerifyBenchmark {
+
+    @Param({"EASY", "HARD", "SIXTEEN"})
+    public Corpus corpus;
+
+    private int n;
+    private int[][][] puzzles;
+    private int[][][] solutions;
+    private byte[] packedPuzzles;
+    private byte[] packedSolutions;
+    private boolean[] results;
+
+    @Setup
+    public void setup() {
+        n = corpus.getN();
+        puzzles = corpus.load();
+        solutions = corpus.solutions();
+
+        // pack the boards back to back for the batch verifier
+        int cells = n * n;
+        packedPuzzles = new byte[puzzles.length * cells];
+        packedSolutions = new byte[puzzles.length * cells];
+        for (int p = 0; p < puzzles.length; p++) {
+            for (int cell = 0; cell < cells; cell++) {
+                packedPuzzles[p * cells + cell] = (byte) puzzles[p][cell / n][cell % n];
+                packedSolutions[p * cells + cell] = (byte) solutions[p][cell / n][cell % n];
+            }
+        }
+        results = new boolean[puzzles.length];
+    }
+
+    @Benchmark
+    public int verifySudoku() {
+        int valid = 0;
+        for (int[][] solution : solutions) {
+            if (SudokuSolver.verifySudoku(solution, n)) valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int verifySolution() {
+        int valid = 0;
+        for (int p = 0; p < solutions.length; p++) {
+            if (SudokuSolver.verifySolution(solutions[p], puzzles[p], n)) valid++;
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int verifyBatch() {
+        return SudokuSolver.verifyBatch(packedSolutions, packedPuzzles, solutions.length, n, results);
+    }
+}
@@ -0,0 +1,9 @@
+/**
+ * The headless sudoku solver
+ * @author Ben Cullivan
+ */
+module sudoku.core {
+    requires jdk.jfr;
+
+    exports sudoku;
+}
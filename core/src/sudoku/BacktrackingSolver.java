@@ -0,0 +1,209 @@
+package sudoku;
+
+/**
+ * A reusable recursive backtracking solver whose cell order can be chosen
+ * In MRV order the number of legal candidates of every empty cell is kept up to date incrementally as numbers are
+ * placed and removed, so picking the most constrained cell is a scan over a small int array.
+ * The number of search nodes of the last solve is recorded so that orders can be compared on the same puzzle.
+ * SolveOptions are checked at every node, and a solve that runs out of budget unwinds and leaves the board unchanged.
+ * An instance is not thread safe but can be reused for any number of puzzles without reallocating.
+ * @author Ben Cullivan
+ */
+public class BacktrackingSolver implements SolverEngine {
+
+    private final SearchOrder order;
+
+    /**
+     * search state, allocated once per board size
+     */
+    private int n;
+    private SudokuLayout layout;
+    private BitGrid grid;
+    private int[] board;
+    private int[] counts;
+    private int[] empty;
+    private int emptyCount;
+    private int[] trail;
+    private int trailSize;
+
+    private long nodes;
+    private SolveOptions.Budget budget = SolveOptions.Budget.UNLIMITED;
+    private boolean exceeded;
+
+    public BacktrackingSolver(SearchOrder order) {
+        this.order = order;
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @return whether the sudoku was successfully solved
+     */
+    @Override
+    public boolean solve(int[][] sudoku, int n) {
+        // make sure the search state matches the board size
+        if (grid == null || this.n != n) allocate(n);
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+
+        // run the search and copy the solution back into the input array
+        for (int cell = 0; cell < n * n; cell++) {
+            board[cell] = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+        }
+        if (!search()) return false;
+        for (int cell = 0; cell < n * n; cell++) {
+            sudoku[layout.rowOf(cell)][layout.columnOf(cell)] = board[cell];
+        }
+        return true;
+    }
+
+    @Override
+    public boolean solve(Board sudoku) {
+        int n = sudoku.getN();
+        if (grid == null || this.n != n) allocate(n);
+        for (int cell = 0; cell < n * n; cell++) board[cell] = sudoku.getCell(cell);
+        if (!search()) return false;
+        for (int cell = 0; cell < n * n; cell++) sudoku.setCell(cell, board[cell]);
+        return true;
+    }
+
+    @Override
+    public SolveStatus solve(Board board, SolveOptions options) {
+        budget = options.start();
+        try {
+            if (budget.isExceeded(1)) return SolveStatus.BUDGET_EXCEEDED;
+            if (solve(board)) return SolveStatus.SOLVED;
+            return exceeded ? SolveStatus.BUDGET_EXCEEDED : SolveStatus.UNSOLVABLE;
+        } finally {
+            budget = SolveOptions.Budget.UNLIMITED;
+        }
+    }
+
+    /**
+     * @return the number of nodes the last call to solve visited
+     */
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @return the cell order this solver uses
+     */
+    public SearchOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * Allocates the search state for a board size
+     * @param n the height and width of the sudoku
+     */
+    private void allocate(int n) {
+        this.n = n;
+        grid = new BitGrid(n);
+        layout = grid.getLayout();
+        int cells = n * n;
+        board = new int[cells];
+        counts = new int[cells];
+        empty = new int[cells];
+        // every placement can lower the count of each of its peers once
+        trail = new int[cells * layout.peersOf(0).length];
+    }
+
+    /**
+     * Loads the starting numbers from the board array, collects the empty cells in row-major order and searches
+     * @return whether the board was completed
+     */
+    private boolean search() {
+        grid.load(board);
+        nodes = 0;
+        exceeded = false;
+        emptyCount = 0;
+        trailSize = 0;
+        for (int cell = 0; cell < n * n; cell++) {
+            if (board[cell] == 0) {
+                empty[emptyCount++] = cell;
+                counts[cell] = Long.bitCount(grid.candidatesCell(cell));
+            }
+        }
+        return backtrack(0);
+    }
+
+    /**
+     * Fills empty[depth..emptyCount-1] recursively
+     * @param depth the number of empty cells that have already been filled
+     * @return whether the remaining cells can be filled
+     */
+    private boolean backtrack(int depth) {
+        nodes++;
+        if (budget.isExceeded(nodes)) {
+            exceeded = true;
+            return false;
+        }
+        if (depth == emptyCount) return true;
+
+        // move the chosen cell to the front of the unfilled part of the empty array
+        int chosen = order == SearchOrder.MRV ? selectMinimum(depth) : depth;
+        int cell = empty[chosen];
+        empty[chosen] = empty[depth];
+        empty[depth] = cell;
+
+        // loop over the numbers that can legally be placed here, lowest first
+        long candidates = grid.candidatesCell(cell);
+        while (candidates != 0) {
+            long bit = candidates & -candidates;
+            candidates ^= bit;
+            int num = Long.numberOfTrailingZeros(bit) + 1;
+
+            // try adding this number and continue with the next cell
+            int mark = trailSize;
+            if (order == SearchOrder.MRV) lowerPeerCounts(cell, bit);
+            grid.addCell(num, cell);
+            board[cell] = num;
+            if (backtrack(depth + 1)) return true;
+
+            // undo the placement and try the next number
+            grid.removeCell(num, cell);
+            board[cell] = 0;
+            while (trailSize > mark) counts[trail[--trailSize]]++;
+            if (exceeded) return false;
+        }
+        return false;
+    }
+
+    /**
+     * @param depth the first position of the unfilled part of the empty array
+     * @return the position in the empty array of the unfilled cell with the fewest candidates
+     */
+    private int selectMinimum(int depth) {
+        int best = depth;
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = depth; i < emptyCount; i++) {
+            int count = counts[empty[i]];
+            if (count < bestCount) {
+                best = i;
+                bestCount = count;
+                // a cell with no candidates or a single candidate cannot be beaten
+                if (count <= 1) break;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Decrements the candidate count of every empty peer that loses a candidate when bit is placed in cell
+     * Must be called before the number is added to the grid. Each decremented cell is recorded on the trail.
+     * @param cell the cell being filled
+     * @param bit the mask bit of the number being placed
+     */
+    private void lowerPeerCounts(int cell, long bit) {
+        for (int peer : layout.peersOf(cell)) {
+            if (board[peer] == 0 && (grid.candidatesCell(peer) & bit) != 0) {
+                counts[peer]--;
+                trail[trailSize++] = peer;
+            }
+        }
+    }
+}
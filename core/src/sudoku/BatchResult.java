@@ -0,0 +1,60 @@
+package sudoku;
+
+/**
+ * The outcome of a BatchSolver run
+ * @author Ben Cullivan
+ */
+public class BatchResult {
+
+    private final boolean[] solved;
+    private final long puzzles;
+    private final long solvedCount;
+    private final long nanos;
+
+    /**
+     * @param solved whether each puzzle was solved, in input order, or null if the order was not kept
+     * @param puzzles the number of puzzles in the batch
+     * @param solvedCount the number of puzzles that were solved
+     * @param nanos the wall clock time the batch took in nanoseconds
+     */
+    public BatchResult(boolean[] solved, long puzzles, long solvedCount, long nanos) {
+        this.solved = solved;
+        this.puzzles = puzzles;
+        this.solvedCount = solvedCount;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @param index the position of the puzzle in the input list
+     * @return whether that puzzle was solved
+     */
+    public boolean isSolved(int index) {
+        if (solved == null) throw new IllegalStateException("This batch did not keep per puzzle results.");
+        return solved[index];
+    }
+
+    public long getPuzzles() {
+        return puzzles;
+    }
+
+    public long getSolvedCount() {
+        return solvedCount;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the number of puzzles solved per second of wall clock time
+     */
+    public double getThroughput() {
+        return nanos == 0 ? 0 : puzzles * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Solved %d/%d puzzles in %.1f ms (%.0f puzzles/sec)",
+                solvedCount, puzzles, nanos / 1e6, getThroughput());
+    }
+}
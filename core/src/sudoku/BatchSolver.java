@@ -0,0 +1,183 @@
+package sudoku;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Solves many sudokus in parallel on a work-stealing ForkJoinPool
+ * Every worker thread lazily creates its own SolverEngine and reuses it for every puzzle it solves, and puzzles are
+ * solved in place, so nothing is allocated per puzzle.
+ * @author Ben Cullivan
+ */
+public class BatchSolver {
+
+    /**
+     * the number of puzzles below which a task stops splitting and solves its range directly
+     */
+    private static final int GRAIN = 64;
+
+    /**
+     * the number of chunks of a streaming batch each worker may have waiting or running at once
+     */
+    private static final int CHUNKS_PER_WORKER = 2;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<SolverEngine> engines;
+
+    /**
+     * Creates a batch solver that runs on the common pool, which uses every core
+     * @param engineFactory creates the engine used by each worker thread
+     */
+    public BatchSolver(Supplier<SolverEngine> engineFactory) {
+        this(engineFactory, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param engineFactory creates the engine used by each worker thread
+     * @param pool the pool the puzzles are solved on
+     */
+    public BatchSolver(Supplier<SolverEngine> engineFactory, ForkJoinPool pool) {
+        this.pool = pool;
+        engines = ThreadLocal.withInitial(engineFactory);
+    }
+
+    /**
+     * Solves every sudoku in the list in place
+     * @param puzzles the sudokus to be solved
+     * @param n the height and width of each sudoku which is nxn
+     * @return whether each puzzle was solved, in input order, and the throughput of the batch
+     */
+    public BatchResult solveAll(List<int[][]> puzzles, int n) {
+        boolean[] solved = new boolean[puzzles.size()];
+        LongAdder solvedCount = new LongAdder();
+        long start = System.nanoTime();
+        pool.invoke(new RangeTask(puzzles, n, solved, solvedCount, 0, puzzles.size()));
+        return new BatchResult(solved, puzzles.size(), solvedCount.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * Solves every sudoku in the stream in place and hands each one to the callback as soon as it is done
+     * The calling thread reads the stream in chunks of at most GRAIN puzzles and submits each chunk as a task, waiting
+     * while every worker already has CHUNKS_PER_WORKER chunks, so a stream of any length is solved in bounded memory.
+     * The callback is called from the worker threads in no particular order and must be thread safe.
+     * @param puzzles the sudokus to be solved
+     * @param n the height and width of each sudoku which is nxn
+     * @param callback receives each sudoku and whether it was solved
+     * @return the throughput of the batch
+     */
+    public BatchResult solveAll(Stream<int[][]> puzzles, int n, SolveCallback callback) {
+        int maxChunks = CHUNKS_PER_WORKER * pool.getParallelism();
+        Semaphore room = new Semaphore(maxChunks);
+        LongAdder solvedCount = new LongAdder();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        long count = 0;
+        long start = System.nanoTime();
+
+        Iterator<int[][]> iterator = puzzles.iterator();
+        while (iterator.hasNext() && failure.get() == null) {
+            List<int[][]> chunk = new ArrayList<>(GRAIN);
+            while (chunk.size() < GRAIN && iterator.hasNext()) chunk.add(iterator.next());
+            count += chunk.size();
+            room.acquireUninterruptibly();
+            pool.execute(() -> {
+                try {
+                    SolverEngine engine = engines.get();
+                    for (int[][] sudoku : chunk) {
+                        boolean solved = engine.solve(sudoku, n);
+                        if (solved) solvedCount.increment();
+                        callback.solved(sudoku, solved);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    room.release();
+                }
+            });
+        }
+
+        // wait for the last chunks, then pass on the first failure as the pool would have
+        room.acquireUninterruptibly(maxChunks);
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        if (e != null) throw new IllegalStateException(e);
+        return new BatchResult(null, count, solvedCount.sum(), System.nanoTime() - start);
+    }
+
+    /**
+     * Receives the puzzles of a streaming batch as they are solved
+     */
+    public interface SolveCallback {
+
+        /**
+         * @param sudoku the puzzle, solved in place if solved is true
+         * @param solved whether the puzzle was solved
+         */
+        void solved(int[][] sudoku, boolean solved);
+    }
+
+    /**
+     * Solves a range of the input list, splitting in half until the range is small
+     */
+    private class RangeTask extends RecursiveAction {
+
+        private final List<int[][]> puzzles;
+        private final int n;
+        private final boolean[] solved;
+        private final LongAdder solvedCount;
+        private final int from;
+        private final int to;
+
+        private RangeTask(List<int[][]> puzzles, int n, boolean[] solved, LongAdder solvedCount, int from, int to) {
+            this.puzzles = puzzles;
+            this.n = n;
+            this.solved = solved;
+            this.solvedCount = solvedCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GRAIN) {
+                SolverEngine engine = engines.get();
+                int count = 0;
+                for (int i = from; i < to; i++) {
+                    solved[i] = engine.solve(puzzles.get(i), n);
+                    if (solved[i]) count++;
+                }
+                solvedCount.add(count);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RangeTask(puzzles, n, solved, solvedCount, from, middle),
+                    new RangeTask(puzzles, n, solved, solvedCount, middle, to));
+        }
+    }
+
+    public static void main(String[] args) {
+        // solve copies of the test sudokus on every core and report the throughput of each engine
+        int copies = 100_000;
+        List<Supplier<SolverEngine>> factories = List.of(
+                () -> new BacktrackingSolver(SearchOrder.MRV), IterativeSolver::new, PropagatingSolver::new,
+                DancingLinksSolver::new);
+        for (Supplier<SolverEngine> factory : factories) {
+            int[][][] puzzles = new int[copies][][];
+            for (int i = 0; i < copies; i++) {
+                int[][] source = i % 2 == 0 ? SudokuSolver.EASY_TEST_SUDOKU : SudokuSolver.HARD_TEST_SUDOKU;
+                puzzles[i] = Arrays.stream(source).map(int[]::clone).toArray(int[][]::new);
+            }
+            BatchResult result = new BatchSolver(factory).solveAll(Arrays.asList(puzzles), 9);
+            System.out.println(factory.get().getClass().getSimpleName() + ": " + result);
+        }
+    }
+}
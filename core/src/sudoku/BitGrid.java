@@ -0,0 +1,191 @@
+package sudoku;
+
+/**
+ * Stores information of a sudoku grid in long bitmasks so that lookups, additions and removals are a single
+ * bitwise operation and never allocate, for every board size up to 36x36.
+ * Bit (num - 1) of a mask is set when num is present in that row, column, or section.
+ * Cells are also addressed by a flat index (row * n + column) which is what the headless engines use.
+ */
+public class BitGrid {
+
+    /**
+     * bitmasks that represent the numbers present in each row, column, and section
+     */
+    private final long[] rowMasks;
+    private final long[] columnMasks;
+    private final long[] sectionMasks;
+
+    /**
+     * the shared tables that map a flat cell index to its row, column, and section
+     */
+    private final SudokuLayout layout;
+
+    private final int n;
+    private final long fullMask;
+
+    public BitGrid(int[][] sudoku, int n) {
+        this(n);
+
+        // make sure that the sudoku passed in matches the board size
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+
+        // add all of the starting numbers of the sudoku to the masks
+        load(sudoku);
+    }
+
+    /**
+     * Creates an empty grid for a board size so that it can be reused across puzzles with load
+     * @param n the height and width of the sudoku which is nxn
+     */
+    public BitGrid(int n) {
+        // make sure that the size is a supported sudoku size
+        layout = SudokuLayout.forSize(n);
+
+        this.n = n;
+        fullMask = (1L << n) - 1;
+
+        rowMasks = new long[n];
+        columnMasks = new long[n];
+        sectionMasks = new long[n];
+    }
+
+    /**
+     * Clears the grid and adds all of the starting numbers of a sudoku
+     * @param sudoku the sudoku whose numbers will be stored
+     */
+    public void load(int[][] sudoku) {
+        clear();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (sudoku[i][j] != 0) {
+                    add(sudoku[i][j], i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Clears the grid and adds all of the numbers of a flat board
+     * @param board the numbers of the sudoku indexed by row * n + column, 0 for an empty spot
+     */
+    public void load(int[] board) {
+        clear();
+        for (int cell = 0; cell < n * n; cell++) {
+            if (board[cell] != 0) {
+                addCell(board[cell], cell);
+            }
+        }
+    }
+
+    /**
+     * Clears the grid and adds all of the numbers of a board
+     * @param board the board whose numbers will be stored
+     */
+    public void load(Board board) {
+        clear();
+        for (int cell = 0; cell < n * n; cell++) {
+            if (board.getCell(cell) != 0) {
+                addCell(board.getCell(cell), cell);
+            }
+        }
+    }
+
+    /**
+     * Removes every number from the grid
+     */
+    public void clear() {
+        for (int i = 0; i < n; i++) {
+            rowMasks[i] = 0;
+            columnMasks[i] = 0;
+            sectionMasks[i] = 0;
+        }
+    }
+
+    /**
+     * Adds a number to the grid
+     * @param num the number to be added
+     * @param row the row of the sudoku where the number will be added
+     * @param column the column of the sudoku where the number will be added
+     */
+    public void add(int num, int row, int column) {
+        addCell(num, row * n + column);
+    }
+
+    /**
+     * Removes a number from the grid
+     * @param num the number to be removed
+     * @param row the row of the sudoku where the number is
+     * @param column the column of the sudoku where the number is
+     */
+    public void remove(int num, int row, int column) {
+        removeCell(num, row * n + column);
+    }
+
+    /**
+     * @param num the number that may be placed
+     * @param row the row number in the sudoku
+     * @param column the column number in the sudoku
+     * @return Whether this number can be placed at this location in accordance with Sudoku rules
+     */
+    public boolean isValidPlacement(int num, int row, int column) {
+        return (candidates(row, column) & (1L << (num - 1))) != 0;
+    }
+
+    /**
+     * @param row the row number in the sudoku
+     * @param column the column number in the sudoku
+     * @return a mask of the numbers that can be placed at this location, bit (num - 1) is set for each num
+     */
+    public long candidates(int row, int column) {
+        return candidatesCell(row * n + column);
+    }
+
+    /**
+     * Adds a number to the grid using a flat cell index
+     * @param num the number to be added
+     * @param cell the flat index of the cell (row * n + column)
+     */
+    public void addCell(int num, int cell) {
+        long bit = 1L << (num - 1);
+        rowMasks[layout.rowOf(cell)] |= bit;
+        columnMasks[layout.columnOf(cell)] |= bit;
+        sectionMasks[layout.sectionOf(cell)] |= bit;
+    }
+
+    /**
+     * Removes a number from the grid using a flat cell index
+     * @param num the number to be removed
+     * @param cell the flat index of the cell (row * n + column)
+     */
+    public void removeCell(int num, int cell) {
+        long bit = ~(1L << (num - 1));
+        rowMasks[layout.rowOf(cell)] &= bit;
+        columnMasks[layout.columnOf(cell)] &= bit;
+        sectionMasks[layout.sectionOf(cell)] &= bit;
+    }
+
+    /**
+     * @param cell the flat index of the cell (row * n + column)
+     * @return a mask of the numbers that can be placed in this cell
+     */
+    public long candidatesCell(int cell) {
+        return ~(rowMasks[layout.rowOf(cell)] | columnMasks[layout.columnOf(cell)]
+                | sectionMasks[layout.sectionOf(cell)]) & fullMask;
+    }
+
+    /**
+     * @return the lookup tables for this board size
+     */
+    public SudokuLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return the height and width of the sudoku
+     */
+    public int getN() {
+        return n;
+    }
+}
@@ -0,0 +1,172 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * A compact sudoku board stored as one byte per cell in row-major order
+ * A board either owns its bytes or is a view onto a region of a larger byte array, such as a buffer holding many
+ * puzzles read from a file, in which case reads and writes go straight to that buffer without copying.
+ * Copying and resetting a board are single array operations. Adapters convert from and to the int[][] format used
+ * by SudokuSolver.
+ * @author Ben Cullivan
+ */
+public final class Board {
+
+    private final byte[] cells;
+    private final int offset;
+    private final int n;
+
+    /**
+     * Creates an empty board that owns its bytes
+     * @param n the height and width of the sudoku which is nxn
+     */
+    public Board(int n) {
+        this(new byte[n * n], 0, n);
+    }
+
+    private Board(byte[] cells, int offset, int n) {
+        SudokuLayout.forSize(n);
+        if (offset < 0 || offset + n * n > cells.length) {
+            throw new IllegalArgumentException("The board does not fit in the buffer.");
+        }
+        this.cells = cells;
+        this.offset = offset;
+        this.n = n;
+    }
+
+    /**
+     * Creates a board that reads and writes a region of an existing buffer without copying it
+     * @param buffer the buffer holding the cells, one byte per cell
+     * @param offset the position of the board's first cell in the buffer
+     * @param n the height and width of the sudoku which is nxn
+     * @return a view onto the buffer
+     */
+    public static Board view(byte[] buffer, int offset, int n) {
+        return new Board(buffer, offset, n);
+    }
+
+    /**
+     * @param sudoku an nxn sudoku array
+     * @return a new board holding the same numbers
+     */
+    public static Board fromArray(int[][] sudoku) {
+        Board board = new Board(sudoku.length);
+        board.load(sudoku);
+        return board;
+    }
+
+    /**
+     * @param row the row number
+     * @param column the column number
+     * @return the number at this location, 0 if it is empty
+     */
+    public int get(int row, int column) {
+        return cells[offset + row * n + column];
+    }
+
+    /**
+     * @param row the row number
+     * @param column the column number
+     * @param num the number to put at this location, 0 to empty it
+     */
+    public void set(int row, int column, int num) {
+        cells[offset + row * n + column] = (byte) num;
+    }
+
+    /**
+     * @param cell the flat index of a cell (row * n + column)
+     * @return the number in the cell, 0 if it is empty
+     */
+    public int getCell(int cell) {
+        return cells[offset + cell];
+    }
+
+    /**
+     * @param cell the flat index of a cell (row * n + column)
+     * @param num the number to put in the cell, 0 to empty it
+     */
+    public void setCell(int cell, int num) {
+        cells[offset + cell] = (byte) num;
+    }
+
+    /**
+     * Overwrites this board with the numbers of another board of the same size
+     * @param other the board to copy
+     */
+    public void copyFrom(Board other) {
+        if (other.n != n) throw new IllegalArgumentException("The boards must be the same size.");
+        System.arraycopy(other.cells, other.offset, cells, offset, n * n);
+    }
+
+    /**
+     * @return a new board, owning its bytes, with the same numbers as this one
+     */
+    public Board copy() {
+        Board copy = new Board(n);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /**
+     * Empties every cell
+     */
+    public void reset() {
+        Arrays.fill(cells, offset, offset + n * n, (byte) 0);
+    }
+
+    /**
+     * Overwrites this board with the numbers of a sudoku array
+     * @param sudoku an nxn sudoku array
+     */
+    public void load(int[][] sudoku) {
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                cells[offset + i * n + j] = (byte) sudoku[i][j];
+            }
+        }
+    }
+
+    /**
+     * Writes the numbers of this board into a sudoku array
+     * @param sudoku an nxn array to overwrite
+     */
+    public void copyTo(int[][] sudoku) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                sudoku[i][j] = cells[offset + i * n + j];
+            }
+        }
+    }
+
+    /**
+     * @return a new sudoku array holding the numbers of this board
+     */
+    public int[][] toArray() {
+        int[][] sudoku = new int[n][n];
+        copyTo(sudoku);
+        return sudoku;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Board)) return false;
+        Board other = (Board) o;
+        return n == other.n && Arrays.equals(cells, offset, offset + n * n,
+                other.cells, other.offset, other.offset + n * n);
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = n;
+        for (int i = offset; i < offset + n * n; i++) hash = 31 * hash + cells[i];
+        return hash;
+    }
+}
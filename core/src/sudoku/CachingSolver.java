@@ -0,0 +1,100 @@
+package sudoku;
+
+/**
+ * Wraps an engine with a SolveCache keyed on the canonical form of each puzzle
+ * A puzzle that is equivalent to a cached one by a rotation, reflection, transposition, band or stack permutation, or
+ * relabeling is answered by mapping the cached solution back through the inverse transform, without searching.
+ * Misses are solved by the wrapped engine and added to the cache.
+ * A lookup tries all 8 * (root!)^2 transforms, which is 4,608 at 16x16 but about 115 thousand at 25x25 and 4 million
+ * at 36x36, more than most solves cost. Boards above MAX_CACHED_SIZE therefore skip the cache and go straight to the
+ * wrapped engine.
+ * An instance is not thread safe, but any number of instances can share one cache.
+ * @author Ben Cullivan
+ */
+public class CachingSolver implements SolverEngine {
+
+    /**
+     * the largest board size that is looked up in the cache
+     */
+    public static final int MAX_CACHED_SIZE = 16;
+
+    private final SolverEngine engine;
+    private final SolveCache cache;
+    private CanonicalForm form;
+    private Board scratch;
+    private boolean hit;
+
+    /**
+     * @param engine the engine that solves the puzzles that are not cached
+     * @param cache the cache, which may be shared with other solvers
+     */
+    public CachingSolver(SolverEngine engine, SolveCache cache) {
+        this.engine = engine;
+        this.cache = cache;
+    }
+
+    @Override
+    public boolean solve(int[][] sudoku, int n) {
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+        if (scratch == null || scratch.getN() != n) scratch = new Board(n);
+        scratch.load(sudoku);
+        if (!solve(scratch)) return false;
+        scratch.copyTo(sudoku);
+        return true;
+    }
+
+    @Override
+    public boolean solve(Board board) {
+        return solve(board, SolveOptions.NONE) == SolveStatus.SOLVED;
+    }
+
+    /**
+     * Answers the board from the cache if it can, and otherwise hands the options on to the wrapped engine
+     * A solve that runs out of budget is not cached, so a later solve with more budget still searches.
+     */
+    @Override
+    public SolveStatus solve(Board board, SolveOptions options) {
+        int n = board.getN();
+        if (n > MAX_CACHED_SIZE) {
+            hit = false;
+            return engine.solve(board, options);
+        }
+        if (form == null || form.getN() != n) form = new CanonicalForm(n);
+        String key = form.canonicalize(board);
+
+        // answer equivalent puzzles from the cache
+        byte[] solution = cache.get(key);
+        hit = solution != null;
+        if (hit) {
+            if (solution == SolveCache.UNSOLVABLE) return SolveStatus.UNSOLVABLE;
+            form.fromCanonical(solution, board);
+            return SolveStatus.SOLVED;
+        }
+
+        SolveStatus status = engine.solve(board, options);
+        if (status == SolveStatus.SOLVED) cache.put(key, form.toCanonical(board));
+        else if (status == SolveStatus.UNSOLVABLE) cache.put(key, SolveCache.UNSOLVABLE);
+        return status;
+    }
+
+    /**
+     * @return the nodes the wrapped engine visited in the last call to solve, 0 if it was answered from the cache
+     */
+    @Override
+    public long getNodeCount() {
+        return hit ? 0 : engine.getNodeCount();
+    }
+
+    /**
+     * @return whether the last call to solve was answered from the cache
+     */
+    public boolean wasHit() {
+        return hit;
+    }
+
+    public SolveCache getCache() {
+        return cache;
+    }
+}
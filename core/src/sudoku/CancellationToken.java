@@ -0,0 +1,24 @@
+package sudoku;
+
+/**
+ * A flag another thread raises to stop the solves that were handed it
+ * Solvers read the flag once every SolveOptions.CHECK_INTERVAL (1024) nodes, and the propagating solver at every
+ * node, so a solve stops shortly after the token is cancelled rather than at once. A token stays cancelled and is
+ * meant to be shared by every solve of one job.
+ * @author Ben Cullivan
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Asks every solve holding this token to stop
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
@@ -0,0 +1,39 @@
+package sudoku;
+
+/**
+ * Works out the candidates of every cell of a board in one pass, for the callers that need all of them at once:
+ * choosing the most constrained cell, seeding a propagation and checking boards in bulk
+ * The candidates of an empty cell are the numbers not used in its row, column or section, as a mask with bit
+ * (num - 1) set for each. Filled cells get an empty mask. Kernels may keep scratch arrays between calls, so an
+ * instance should not be shared between threads.
+ * @author Ben Cullivan
+ */
+public interface CandidateKernel {
+
+    /**
+     * the class of the SIMD kernel, which is only on the class path when the vector module is built
+     */
+    String VECTOR_KERNEL = "sudoku.vector.VectorCandidateKernel";
+
+    /**
+     * Fills in the candidates of every cell of a board
+     * @param cells the buffer holding the board, one byte per cell in row-major order
+     * @param offset the position of the board's first cell in the buffer
+     * @param n the height and width of the sudoku which is nxn
+     * @param candidates the array to fill in, with at least n * n entries
+     * @return the empty cell with the fewest candidates, the first one on a tie, or -1 if the board is full
+     */
+    int compute(byte[] cells, int offset, int n, long[] candidates);
+
+    /**
+     * @return the vector kernel if its module and jdk.incubator.vector are both available and the CPU has wide
+     *         enough vectors, otherwise a ScalarCandidateKernel
+     */
+    static CandidateKernel best() {
+        try {
+            return (CandidateKernel) Class.forName(VECTOR_KERNEL).getMethod("create").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarCandidateKernel();
+        }
+    }
+}
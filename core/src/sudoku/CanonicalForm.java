@@ -0,0 +1,222 @@
+package sudoku;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Maps a puzzle to a canonical representative of every puzzle that differs from it only by a rotation, reflection,
+ * transposition, permutation of bands or stacks, or a relabeling of the numbers
+ * Every combination of the 8 rotations and reflections with every band and stack permutation is applied, the numbers
+ * of each result are relabeled in order of first appearance, and the lexicographically smallest result is the
+ * canonical form. Transforms are abandoned as soon as they compare greater than the best so far, so most of them only
+ * look at a few cells. The transform that produced the canonical form is kept, so a solution of the canonical puzzle
+ * can be mapped back onto the original.
+ * An instance is not thread safe but can be reused for any number of puzzles of its size.
+ * @author Ben Cullivan
+ */
+public class CanonicalForm {
+
+    private final int n;
+    private final int root;
+    private final int cells;
+
+    /**
+     * the source cell of every cell under each rotation and reflection
+     */
+    private final int[][] dihedral;
+
+    /**
+     * the line each line is moved to under each permutation of the bands or stacks
+     */
+    private final int[][] lineMaps;
+
+    /**
+     * the puzzle being canonicalized
+     */
+    private final int[] puzzle;
+
+    /**
+     * the best transform so far and the one being tried, as labels and source cells
+     */
+    private byte[] best;
+    private int[] bestSource;
+    private byte[] candidate;
+    private int[] candidateSource;
+
+    /**
+     * the label of each number under the best transform and the number of each label
+     */
+    private final int[] labels;
+    private final int[] bestLabels;
+    private final int[] numbers;
+
+    /**
+     * @param n the height and width of the sudokus which are nxn
+     */
+    public CanonicalForm(int n) {
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        this.n = n;
+        root = layout.getRoot();
+        cells = n * n;
+        dihedral = new int[8][cells];
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                int cell = row * n + column;
+                int flippedRow = n - 1 - row;
+                int flippedColumn = n - 1 - column;
+                dihedral[0][cell] = row * n + column;
+                dihedral[1][cell] = column * n + row;
+                dihedral[2][cell] = flippedRow * n + column;
+                dihedral[3][cell] = row * n + flippedColumn;
+                dihedral[4][cell] = flippedRow * n + flippedColumn;
+                dihedral[5][cell] = flippedColumn * n + row;
+                dihedral[6][cell] = column * n + flippedRow;
+                dihedral[7][cell] = flippedColumn * n + flippedRow;
+            }
+        }
+        lineMaps = lineMaps(root);
+        puzzle = new int[cells];
+        best = new byte[cells];
+        bestSource = new int[cells];
+        candidate = new byte[cells];
+        candidateSource = new int[cells];
+        labels = new int[n + 1];
+        bestLabels = new int[n + 1];
+        numbers = new int[n + 1];
+    }
+
+    /**
+     * Finds the canonical form of a puzzle and remembers the transform that produced it
+     * @param board the puzzle
+     * @return the canonical form, equal for exactly the puzzles that are equivalent under the transforms
+     */
+    public String canonicalize(Board board) {
+        if (board.getN() != n) throw new IllegalArgumentException("The board must be " + n + "x" + n + ".");
+        for (int cell = 0; cell < cells; cell++) puzzle[cell] = board.getCell(cell);
+
+        boolean first = true;
+        for (int[] source : dihedral) {
+            for (int[] rowMap : lineMaps) {
+                for (int[] columnMap : lineMaps) {
+                    if (tryTransform(source, rowMap, columnMap, first)) first = false;
+                }
+            }
+        }
+
+        // give the numbers the puzzle does not use the remaining labels, so the labeling is a bijection
+        int next = 0;
+        for (int num = 1; num <= n; num++) next = Math.max(next, bestLabels[num]);
+        for (int num = 1; num <= n; num++) {
+            if (bestLabels[num] == 0) bestLabels[num] = ++next;
+            numbers[bestLabels[num]] = num;
+        }
+        return new String(best, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Applies the transform of the last canonicalized puzzle to a solution of it
+     * @param solution a solution of the last canonicalized puzzle
+     * @return the solution of the canonical puzzle
+     */
+    public byte[] toCanonical(Board solution) {
+        byte[] canonical = new byte[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            canonical[cell] = (byte) bestLabels[solution.getCell(bestSource[cell])];
+        }
+        return canonical;
+    }
+
+    /**
+     * Maps a solution of the canonical puzzle back through the inverse of the last transform
+     * @param canonical a solution of the canonical form of the last canonicalized puzzle
+     * @param board the board to write the solution of the original puzzle to
+     */
+    public void fromCanonical(byte[] canonical, Board board) {
+        for (int cell = 0; cell < cells; cell++) {
+            board.setCell(bestSource[cell], numbers[canonical[cell]]);
+        }
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Builds the transformed puzzle cell by cell, giving up once it compares greater than the best so far
+     * @param source the source cell of every cell under a rotation or reflection
+     * @param rowMap the row each row is moved to
+     * @param columnMap the column each column is moved to
+     * @param first whether there is no best transform yet
+     * @return whether the transform became the best so far
+     */
+    private boolean tryTransform(int[] source, int[] rowMap, int[] columnMap, boolean first) {
+        for (int num = 1; num <= n; num++) labels[num] = 0;
+        int next = 0;
+        boolean less = first;
+        for (int row = 0; row < n; row++) {
+            int rowBase = rowMap[row] * n;
+            for (int column = 0; column < n; column++) {
+                int cell = row * n + column;
+                int from = source[rowBase + columnMap[column]];
+                int num = puzzle[from];
+                int label = num == 0 ? 0 : labels[num] != 0 ? labels[num] : (labels[num] = ++next);
+                if (!less) {
+                    if (label > best[cell]) return false;
+                    if (label < best[cell]) less = true;
+                }
+                candidate[cell] = (byte) label;
+                candidateSource[cell] = from;
+            }
+        }
+        if (!less) return false;
+
+        // keep the candidate as the new best
+        byte[] swapLabels = best;
+        best = candidate;
+        candidate = swapLabels;
+        int[] swapSource = bestSource;
+        bestSource = candidateSource;
+        candidateSource = swapSource;
+        System.arraycopy(labels, 0, bestLabels, 0, n + 1);
+        return true;
+    }
+
+    /**
+     * @param root the number of bands or stacks
+     * @return for every permutation of the blocks, the line each line is moved to
+     */
+    private static int[][] lineMaps(int root) {
+        int count = 1;
+        for (int i = 2; i <= root; i++) count *= i;
+        int[][] maps = new int[count][root * root];
+        int[] blocks = new int[root];
+        for (int i = 0; i < root; i++) blocks[i] = i;
+        for (int p = 0; p < count; p++) {
+            for (int line = 0; line < root * root; line++) {
+                maps[p][line] = blocks[line / root] * root + line % root;
+            }
+            nextPermutation(blocks);
+        }
+        return maps;
+    }
+
+    /**
+     * Steps an array to the next permutation in lexicographic order, wrapping around after the last
+     * @param array the permutation
+     */
+    private static void nextPermutation(int[] array) {
+        int i = array.length - 2;
+        while (i >= 0 && array[i] >= array[i + 1]) i--;
+        if (i >= 0) {
+            int j = array.length - 1;
+            while (array[j] <= array[i]) j--;
+            swap(array, i, j);
+        }
+        for (int left = i + 1, right = array.length - 1; left < right; left++, right--) swap(array, left, right);
+    }
+
+    private static void swap(int[] array, int i, int j) {
+        int swap = array[i];
+        array[i] = array[j];
+        array[j] = swap;
+    }
+}
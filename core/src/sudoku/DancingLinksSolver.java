@@ -0,0 +1,287 @@
+package sudoku;
+
+/**
+ * Solves a sudoku as an exact cover problem with Knuth's Algorithm X on a dancing links matrix
+ * The matrix has a column for every cell, row-number, column-number and section-number constraint and a row for
+ * every (cell, number) placement. It is stored in flat int arrays and built once per board size. Covering and
+ * uncovering are exact inverses, so every solve unwinds the matrix back to its original state on the way out and
+ * the next puzzle starts from a clean matrix without rebuilding it. A solve with SolveOptions unwinds the same way
+ * when it runs out of budget.
+ * An instance is not thread safe but can be reused for any number of puzzles.
+ * @author Ben Cullivan
+ */
+public class DancingLinksSolver implements SolverEngine {
+
+    /**
+     * matrices that have already been built, indexed by board size
+     */
+    private final Matrix[] matrices = new Matrix[SudokuLayout.MAX_SIZE + 1];
+
+    private long nodes;
+    private SolveOptions.Budget budget = SolveOptions.Budget.UNLIMITED;
+    private boolean exceeded;
+
+    @Override
+    public boolean solve(int[][] sudoku, int n) {
+        // make sure the arguments passed in are in compliance with valid sudoku format 4x4 up to 36x36
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+        Matrix matrix = matrixFor(layout);
+        for (int cell = 0; cell < n * n; cell++) {
+            matrix.board[cell] = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+        }
+        if (!solveBoard(matrix, n)) return false;
+        for (int cell = 0; cell < n * n; cell++) {
+            sudoku[layout.rowOf(cell)][layout.columnOf(cell)] = matrix.board[cell];
+        }
+        return true;
+    }
+
+    @Override
+    public boolean solve(Board board) {
+        int n = board.getN();
+        Matrix matrix = matrixFor(SudokuLayout.forSize(n));
+        for (int cell = 0; cell < n * n; cell++) matrix.board[cell] = board.getCell(cell);
+        if (!solveBoard(matrix, n)) return false;
+        for (int cell = 0; cell < n * n; cell++) board.setCell(cell, matrix.board[cell]);
+        return true;
+    }
+
+    @Override
+    public SolveStatus solve(Board board, SolveOptions options) {
+        budget = options.start();
+        try {
+            if (budget.isExceeded(1)) return SolveStatus.BUDGET_EXCEEDED;
+            if (solve(board)) return SolveStatus.SOLVED;
+            return exceeded ? SolveStatus.BUDGET_EXCEEDED : SolveStatus.UNSOLVABLE;
+        } finally {
+            budget = SolveOptions.Budget.UNLIMITED;
+        }
+    }
+
+    /**
+     * @return the number of search nodes the last call to solve visited
+     */
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @param layout the layout of the board size
+     * @return the matrix for the board size, building it the first time the size is seen
+     */
+    private Matrix matrixFor(SudokuLayout layout) {
+        int n = layout.getN();
+        if (matrices[n] == null) matrices[n] = new Matrix(layout);
+        return matrices[n];
+    }
+
+    /**
+     * Solves the flat board held by the matrix in place, then puts the matrix back the way it was
+     * @param matrix the matrix for the board size, with the puzzle in matrix.board
+     * @param n the height and width of the sudoku
+     * @return whether the board was solved
+     */
+    private boolean solveBoard(Matrix matrix, int n) {
+        nodes = 0;
+        exceeded = false;
+
+        // select the rows of the starting numbers, stopping if two of them conflict
+        int givens = 0;
+        boolean consistent = true;
+        for (int cell = 0; cell < n * n && consistent; cell++) {
+            int num = matrix.board[cell];
+            if (num == 0) continue;
+            int row = cell * n + num - 1;
+            if (matrix.select(row)) matrix.solution[givens++] = row;
+            else consistent = false;
+        }
+
+        // search for the remaining rows, then unwind the starting rows
+        boolean solved = consistent && search(matrix, givens);
+        if (solved) {
+            for (int i = 0; i < n * n; i++) {
+                int row = matrix.solution[i];
+                matrix.board[row / n] = row % n + 1;
+            }
+        }
+        for (int i = givens - 1; i >= 0; i--) matrix.deselect(matrix.solution[i]);
+        return solved;
+    }
+
+    /**
+     * Algorithm X: covers the column with the fewest rows and tries each of its rows in turn
+     * The matrix is always restored before returning, the chosen rows are left in matrix.solution.
+     * @param m the matrix
+     * @param depth the number of rows selected so far
+     * @return whether every column could be covered
+     */
+    private boolean search(Matrix m, int depth) {
+        nodes++;
+        if (budget.isExceeded(nodes)) {
+            exceeded = true;
+            return false;
+        }
+        if (m.right[0] == 0) return true;
+
+        // choose the column with the fewest remaining rows
+        int column = m.right[0];
+        for (int c = m.right[column]; c != 0 && m.size[column] > 1; c = m.right[c]) {
+            if (m.size[c] < m.size[column]) column = c;
+        }
+        if (m.size[column] == 0) return false;
+
+        m.cover(column);
+        boolean found = false;
+        for (int node = m.down[column]; node != column && !found && !exceeded; node = m.down[node]) {
+            m.solution[depth] = m.rowOf[node];
+            for (int j = m.right[node]; j != node; j = m.right[j]) m.cover(m.columnOf[j]);
+            found = search(m, depth + 1);
+            for (int j = m.left[node]; j != node; j = m.left[j]) m.uncover(m.columnOf[j]);
+        }
+        m.uncover(column);
+        return found;
+    }
+
+    /**
+     * The dancing links matrix for one board size
+     * Node 0 is the root, nodes 1..columns are the column headers and the rest are the four nodes of each row.
+     */
+    private static final class Matrix {
+
+        private final int[] left;
+        private final int[] right;
+        private final int[] up;
+        private final int[] down;
+        private final int[] columnOf;
+        private final int[] rowOf;
+        private final int[] size;
+
+        /**
+         * the first node of every row and whether each column is currently covered
+         */
+        private final int[] firstNode;
+        private final boolean[] covered;
+
+        /**
+         * the rows selected by the current solve and the flat board being solved
+         */
+        private final int[] solution;
+        private final int[] board;
+
+        private Matrix(SudokuLayout layout) {
+            int n = layout.getN();
+            int cells = n * n;
+            int columns = 4 * cells;
+            int rows = cells * n;
+            int nodes = 1 + columns + 4 * rows;
+
+            left = new int[nodes];
+            right = new int[nodes];
+            up = new int[nodes];
+            down = new int[nodes];
+            columnOf = new int[nodes];
+            rowOf = new int[nodes];
+            size = new int[columns + 1];
+            firstNode = new int[rows];
+            covered = new boolean[columns + 1];
+            solution = new int[cells];
+            board = new int[cells];
+
+            // link the root and the column headers into a circular list
+            for (int c = 0; c <= columns; c++) {
+                left[c] = c == 0 ? columns : c - 1;
+                right[c] = c == columns ? 0 : c + 1;
+                up[c] = c;
+                down[c] = c;
+                columnOf[c] = c;
+            }
+
+            // add a row for every number in every cell
+            int next = columns + 1;
+            for (int cell = 0; cell < cells; cell++) {
+                int row = layout.rowOf(cell);
+                int column = layout.columnOf(cell);
+                int section = layout.sectionOf(cell);
+                for (int d = 0; d < n; d++) {
+                    int r = cell * n + d;
+                    firstNode[r] = next;
+                    int[] headers = {
+                            1 + cell,
+                            1 + cells + row * n + d,
+                            1 + 2 * cells + column * n + d,
+                            1 + 3 * cells + section * n + d
+                    };
+                    for (int i = 0; i < 4; i++) {
+                        int node = next + i;
+                        int header = headers[i];
+                        // link into the row
+                        left[node] = next + (i + 3) % 4;
+                        right[node] = next + (i + 1) % 4;
+                        // link at the bottom of the column
+                        up[node] = up[header];
+                        down[node] = header;
+                        down[up[header]] = node;
+                        up[header] = node;
+                        columnOf[node] = header;
+                        rowOf[node] = r;
+                        size[header]++;
+                    }
+                    next += 4;
+                }
+            }
+        }
+
+        private void cover(int column) {
+            covered[column] = true;
+            right[left[column]] = right[column];
+            left[right[column]] = left[column];
+            for (int i = down[column]; i != column; i = down[i]) {
+                for (int j = right[i]; j != i; j = right[j]) {
+                    down[up[j]] = down[j];
+                    up[down[j]] = up[j];
+                    size[columnOf[j]]--;
+                }
+            }
+        }
+
+        private void uncover(int column) {
+            for (int i = up[column]; i != column; i = up[i]) {
+                for (int j = left[i]; j != i; j = left[j]) {
+                    size[columnOf[j]]++;
+                    down[up[j]] = j;
+                    up[down[j]] = j;
+                }
+            }
+            right[left[column]] = column;
+            left[right[column]] = column;
+            covered[column] = false;
+        }
+
+        /**
+         * Covers every column of a row, as if the row had been chosen by the search
+         * @param row the row to select
+         * @return false (leaving the matrix unchanged) if one of its columns is already covered
+         */
+        private boolean select(int row) {
+            int first = firstNode[row];
+            for (int i = 0; i < 4; i++) {
+                if (covered[columnOf[first + i]]) return false;
+            }
+            for (int i = 0; i < 4; i++) cover(columnOf[first + i]);
+            return true;
+        }
+
+        /**
+         * Reverts select for a row
+         * @param row the row to deselect
+         */
+        private void deselect(int row) {
+            int first = firstNode[row];
+            for (int i = 3; i >= 0; i--) uncover(columnOf[first + i]);
+        }
+    }
+}
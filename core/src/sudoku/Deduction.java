@@ -0,0 +1,38 @@
+package sudoku;
+
+/**
+ * The logical rules the Propagator applies, listed from cheapest to most expensive
+ * @author Ben Cullivan
+ */
+public enum Deduction {
+
+    /**
+     * a cell has only one candidate left
+     */
+    NAKED_SINGLE,
+
+    /**
+     * a number has only one possible cell left in a row, column, or section
+     */
+    HIDDEN_SINGLE,
+
+    /**
+     * two cells of a unit share the same two candidates, so no other cell of the unit can hold them
+     */
+    NAKED_PAIR,
+
+    /**
+     * two numbers of a unit are only possible in the same two cells, so those cells hold nothing else
+     */
+    HIDDEN_PAIR,
+
+    /**
+     * a number's candidates in a section all lie in one row or column, so it is removed from the rest of that line
+     */
+    POINTING,
+
+    /**
+     * a number's candidates in a row or column all lie in one section, so it is removed from the rest of it
+     */
+    CLAIMING
+}
@@ -0,0 +1,28 @@
+package sudoku;
+
+/**
+ * How hard a puzzle is to solve, graded by the most expensive help the PropagatingSolver needed, easiest first
+ * @author Ben Cullivan
+ */
+public enum Difficulty {
+
+    /**
+     * naked and hidden singles solve the puzzle
+     */
+    EASY,
+
+    /**
+     * the puzzle also needs pairs, pointing or claiming, but no guesses
+     */
+    MEDIUM,
+
+    /**
+     * the puzzle needs at least one guess, but no more than n
+     */
+    HARD,
+
+    /**
+     * the puzzle needs more than n guesses
+     */
+    EXPERT
+}
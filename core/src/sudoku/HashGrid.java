@@ -1,3 +1,5 @@
+package sudoku;
+
 import java.util.ArrayList;
 import java.util.HashSet;
 
@@ -16,9 +18,9 @@ public class HashGrid {
 
     public HashGrid(int[][] sudoku, int n) {
 
-        // make sure that the arguments passed in are in compliance with valid sudoku format 4x4 9x9 or 16x16
-        if (!(n == 4 || n == 9 || n == 16) || sudoku.length == 0 || sudoku[0].length == 0
-                || sudoku.length != sudoku[0].length) {
+        // make sure that the arguments passed in are in compliance with a supported sudoku size
+        SudokuLayout.forSize(n);
+        if (sudoku.length == 0 || sudoku[0].length == 0 || sudoku.length != sudoku[0].length) {
             throw new IllegalArgumentException("The sudoku must have an equal number of rows and columns that " +
                     "is greater than 0.");
         }
@@ -0,0 +1,150 @@
+package sudoku;
+
+import java.util.List;
+
+/**
+ * One logical step found by the HintEngine, either placing a number or removing candidates
+ * A placement also lists the removals that had to be made before it could be seen, in the order they were found,
+ * so the whole chain reads like "pointing 4 in box 2 → remove 4 from r1c7; hidden single in row 1 → r1c3 = 4".
+ * Rows, columns, and boxes are numbered from 1 and boxes are counted row by row.
+ * @author Ben Cullivan
+ */
+public final class Hint {
+
+    private final int n;
+    private final Deduction technique;
+    private final int unit;
+    private final long numbers;
+    private final int[] cells;
+    private final long removed;
+    private final List<Hint> steps;
+
+    /**
+     * @param n the height and width of the sudoku
+     * @param technique the rule that was applied
+     * @param unit the layout unit the rule was found in, or -1 for a naked single
+     * @param numbers the mask of the numbers the rule is about, the placed number for a single
+     * @param cells the cell that is filled, or the cells that lose candidates
+     * @param removed the mask of the candidates that are removed, 0 for a single
+     * @param steps the removals that came before a placement, empty for a removal
+     */
+    Hint(int n, Deduction technique, int unit, long numbers, int[] cells, long removed, List<Hint> steps) {
+        this.n = n;
+        this.technique = technique;
+        this.unit = unit;
+        this.numbers = numbers;
+        this.cells = cells;
+        this.removed = removed;
+        this.steps = steps;
+    }
+
+    /**
+     * @param steps the removals that came before this placement
+     * @return a copy of this hint with the removals attached
+     */
+    Hint withSteps(List<Hint> steps) {
+        return new Hint(n, technique, unit, numbers, cells, removed, List.copyOf(steps));
+    }
+
+    /**
+     * @return whether the hint places a number, as opposed to only removing candidates
+     */
+    public boolean isPlacement() {
+        return removed == 0;
+    }
+
+    public Deduction getTechnique() {
+        return technique;
+    }
+
+    /**
+     * @return the row of the placed number, or -1 for a removal
+     */
+    public int getRow() {
+        return isPlacement() ? cells[0] / n : -1;
+    }
+
+    /**
+     * @return the column of the placed number, or -1 for a removal
+     */
+    public int getColumn() {
+        return isPlacement() ? cells[0] % n : -1;
+    }
+
+    /**
+     * @return the placed number, or 0 for a removal
+     */
+    public int getNumber() {
+        return isPlacement() ? Long.numberOfTrailingZeros(numbers) + 1 : 0;
+    }
+
+    /**
+     * @return the flat indexes of the cell that is filled or of the cells that lose candidates
+     */
+    public int[] getCells() {
+        return cells.clone();
+    }
+
+    /**
+     * @return the mask of the candidates that are removed, with bit (num - 1) set for each, or 0 for a placement
+     */
+    public long getRemoved() {
+        return removed;
+    }
+
+    /**
+     * @return the removals that had to be made before this placement could be seen
+     */
+    public List<Hint> getSteps() {
+        return steps;
+    }
+
+    /**
+     * @return the row, column, or box the rule was found in, or an empty string for a naked single
+     */
+    public String getUnitName() {
+        if (unit < 0) return "";
+        if (unit < n) return "row " + (unit + 1);
+        if (unit < 2 * n) return "column " + (unit - n + 1);
+        // sections are numbered down each stack, boxes across each band
+        int root = SudokuLayout.forSize(n).getRoot();
+        int section = unit - 2 * n;
+        return "box " + ((section % root) * root + section / root + 1);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Hint step : steps) text.append(step).append("; ");
+        text.append(technique.name().toLowerCase().replace('_', ' '));
+        if (technique != Deduction.NAKED_SINGLE && technique != Deduction.HIDDEN_SINGLE) {
+            text.append(' ');
+            appendNumbers(text, numbers, " ");
+        }
+        if (unit >= 0) text.append(" in ").append(getUnitName());
+        text.append(" → ");
+        if (isPlacement()) {
+            appendCell(text, cells[0]);
+            return text.append(" = ").append(getNumber()).toString();
+        }
+        text.append("remove ");
+        appendNumbers(text, removed, ", ");
+        text.append(" from ");
+        for (int i = 0; i < cells.length; i++) {
+            if (i > 0) text.append(", ");
+            appendCell(text, cells[i]);
+        }
+        return text.toString();
+    }
+
+    private void appendCell(StringBuilder text, int cell) {
+        text.append('r').append(cell / n + 1).append('c').append(cell % n + 1);
+    }
+
+    private static void appendNumbers(StringBuilder text, long mask, String separator) {
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            if (rest != mask) text.append(separator);
+            text.append(Long.numberOfTrailingZeros(rest) + 1);
+        }
+    }
+}
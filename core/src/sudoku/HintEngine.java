@@ -0,0 +1,347 @@
+package sudoku;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Finds the cheapest next logical step for a sudoku in progress, as a player would be told it
+ * The candidates are worked out from the numbers on the board alone. The rules of Deduction are tried cheapest
+ * first, and whenever only a removal is found it is applied and the search starts over from the cheapest rule, so
+ * the hint always ends in a placement and lists the removals that led to it. A board that would need a guess gets
+ * no hint. Each removal takes away at least one candidate, so the work per hint is bounded by the board size.
+ * The hint of every board is memoized in a bounded least recently used map, so repeated requests for the same
+ * position are answered without any work. The finished hint is kept rather than the candidates of the analysis:
+ * carrying the removals of one board over to the next would give hints that depend on what was asked before and
+ * leave out removals they rely on, and building the candidates again is a single pass over the cells, cheap next to
+ * the rules. The engine is thread safe and meant to be shared.
+ * @author Ben Cullivan
+ */
+public class HintEngine {
+
+    private final int capacity;
+    private final Map<String, Hint> hints;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity the number of boards whose hints are kept before the least recently used one is evicted
+     */
+    public HintEngine(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive.");
+        this.capacity = capacity;
+        hints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Hint> eldest) {
+                return size() > HintEngine.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * @param board the numbers on the board, 0 for an empty spot
+     * @return the cheapest placement and the removals it needs, or null if the board is full, contradicts itself,
+     *         or needs a guess
+     */
+    public Hint next(Board board) {
+        return next(board, Deduction.values()[Deduction.values().length - 1]);
+    }
+
+    /**
+     * @param board the numbers on the board, 0 for an empty spot
+     * @param hardest the most expensive rule that may be used
+     * @return the cheapest placement and the removals it needs, or null if the board is full, contradicts itself,
+     *         or cannot be advanced without a harder rule
+     */
+    public Hint next(Board board, Deduction hardest) {
+        String key = key(board, hardest);
+        synchronized (hints) {
+            if (hints.containsKey(key)) {
+                hits.increment();
+                return hints.get(key);
+            }
+        }
+        misses.increment();
+        Hint hint = new Analysis(board, hardest).run();
+        synchronized (hints) {
+            hints.put(key, hint);
+        }
+        return hint;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @param board a board
+     * @param hardest the most expensive rule allowed
+     * @return a string holding the rule limit and one character per cell
+     */
+    private static String key(Board board, Deduction hardest) {
+        int cells = board.getN() * board.getN();
+        byte[] bytes = new byte[cells + 1];
+        bytes[0] = (byte) hardest.ordinal();
+        for (int cell = 0; cell < cells; cell++) bytes[cell + 1] = (byte) board.getCell(cell);
+        return new String(bytes, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * The candidate masks of one board, narrowed down by the removals found so far
+     */
+    private static final class Analysis {
+
+        private final int n;
+        private final SudokuLayout layout;
+        private final Deduction hardest;
+        private final int[] values;
+        private final long[] candidates;
+        private boolean contradiction;
+
+        Analysis(Board board, Deduction hardest) {
+            n = board.getN();
+            layout = SudokuLayout.forSize(n);
+            this.hardest = hardest;
+            int cells = layout.getCells();
+            values = new int[cells];
+            candidates = new long[cells];
+
+            // collect the numbers used in every unit, rejecting a number that appears twice
+            long[] used = new long[3 * n];
+            for (int u = 0; u < 3 * n && !contradiction; u++) {
+                for (int cell : layout.unit(u)) {
+                    int num = board.getCell(cell);
+                    if (num == 0) continue;
+                    long bit = 1L << (num - 1);
+                    if ((used[u] & bit) != 0) contradiction = true;
+                    used[u] |= bit;
+                }
+            }
+
+            long fullMask = (1L << n) - 1;
+            for (int cell = 0; cell < cells; cell++) {
+                values[cell] = board.getCell(cell);
+                if (values[cell] != 0) continue;
+                candidates[cell] = fullMask & ~(used[layout.rowOf(cell)] | used[n + layout.columnOf(cell)]
+                        | used[2 * n + layout.sectionOf(cell)]);
+            }
+        }
+
+        /**
+         * Tries the rules cheapest first, applying removals until a placement turns up
+         * @return the placement with the removals before it, or null if there is none
+         */
+        Hint run() {
+            List<Hint> steps = new ArrayList<>();
+            while (!contradiction) {
+                // the singles also find a dead board, which no other rule should be tried on
+                Hint hint = nakedSingle();
+                if (contradiction) return null;
+                if (hint == null && allowed(Deduction.HIDDEN_SINGLE)) hint = hiddenSingle();
+                if (contradiction) return null;
+                if (hint != null) return hint.withSteps(steps);
+                if (allowed(Deduction.NAKED_PAIR)) hint = nakedPair();
+                if (hint == null && allowed(Deduction.HIDDEN_PAIR)) hint = hiddenPair();
+                if (hint == null && allowed(Deduction.POINTING)) hint = lockedCandidates(true);
+                if (hint == null && allowed(Deduction.CLAIMING)) hint = lockedCandidates(false);
+                if (hint == null) return null;
+                steps.add(hint);
+            }
+            return null;
+        }
+
+        private boolean allowed(Deduction deduction) {
+            return deduction.compareTo(hardest) <= 0;
+        }
+
+        /**
+         * @return a naked single, or null if there is none or an empty cell has no candidates left
+         */
+        private Hint nakedSingle() {
+            for (int cell = 0; cell < values.length; cell++) {
+                if (values[cell] != 0) continue;
+                long mask = candidates[cell];
+                if (mask == 0) {
+                    contradiction = true;
+                    return null;
+                }
+                if (Long.bitCount(mask) == 1) {
+                    return new Hint(n, Deduction.NAKED_SINGLE, -1, mask, new int[] {cell}, 0, List.of());
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Looks in the boxes first and then in the rows and columns, the order a player usually scans in
+         * @return a hidden single, or null if there is none or a number has no place left in a unit
+         */
+        private Hint hiddenSingle() {
+            for (int i = 0; i < 3 * n; i++) {
+                int u = (i + 2 * n) % (3 * n);
+                int[] unit = layout.unit(u);
+                long placed = 0;
+                long once = 0;
+                long more = 0;
+                for (int cell : unit) {
+                    if (values[cell] != 0) {
+                        placed |= 1L << (values[cell] - 1);
+                    } else {
+                        more |= once & candidates[cell];
+                        once |= candidates[cell];
+                    }
+                }
+                if ((once | placed) != (1L << n) - 1) {
+                    contradiction = true;
+                    return null;
+                }
+                long singles = once & ~more & ~placed;
+                if (singles == 0) continue;
+                long bit = singles & -singles;
+                for (int cell : unit) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        return new Hint(n, Deduction.HIDDEN_SINGLE, u, bit, new int[] {cell}, 0, List.of());
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the removals of a naked pair, which are already applied, or null if no pair removes anything
+         */
+        private Hint nakedPair() {
+            for (int u = 0; u < 3 * n; u++) {
+                int[] unit = layout.unit(u);
+                for (int i = 0; i < n; i++) {
+                    long pair = candidates[unit[i]];
+                    if (values[unit[i]] != 0 || Long.bitCount(pair) != 2) continue;
+                    for (int j = i + 1; j < n; j++) {
+                        if (values[unit[j]] != 0 || candidates[unit[j]] != pair) continue;
+                        int[] targets = new int[n];
+                        int count = 0;
+                        for (int k = 0; k < n; k++) {
+                            int cell = unit[k];
+                            if (k != i && k != j && values[cell] == 0 && (candidates[cell] & pair) != 0) {
+                                targets[count++] = cell;
+                            }
+                        }
+                        if (count > 0) return remove(Deduction.NAKED_PAIR, u, pair, targets, count, pair);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * @return the removals of a hidden pair, which are already applied, or null if no pair removes anything
+         */
+        private Hint hiddenPair() {
+            long[] positions = new long[n];
+            for (int u = 0; u < 3 * n; u++) {
+                int[] unit = layout.unit(u);
+                for (int d = 0; d < n; d++) positions[d] = 0;
+                for (int i = 0; i < n; i++) {
+                    if (values[unit[i]] != 0) continue;
+                    for (long mask = candidates[unit[i]]; mask != 0; mask &= mask - 1) {
+                        positions[Long.numberOfTrailingZeros(mask)] |= 1L << i;
+                    }
+                }
+                for (int a = 0; a < n; a++) {
+                    if (Long.bitCount(positions[a]) != 2) continue;
+                    for (int b = a + 1; b < n; b++) {
+                        if (positions[b] != positions[a]) continue;
+                        long pair = (1L << a) | (1L << b);
+                        int first = unit[Long.numberOfTrailingZeros(positions[a])];
+                        int second = unit[63 - Long.numberOfLeadingZeros(positions[a])];
+                        long others = (candidates[first] | candidates[second]) & ~pair;
+                        if (others == 0) continue;
+                        return remove(Deduction.HIDDEN_PAIR, u, pair, new int[] {first, second}, 2, others);
+                    }
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Finds a number whose candidates in a box lie on one line (pointing), or whose candidates on a line lie in
+         * one box (claiming), and that can be removed from the rest of the other unit
+         * @param pointing whether to look for pointing rather than claiming
+         * @return the removals, which are already applied, or null if there are none
+         */
+        private Hint lockedCandidates(boolean pointing) {
+            int first = pointing ? 2 * n : 0;
+            int last = pointing ? 3 * n : 2 * n;
+            int[] targets = new int[n];
+            for (int u = first; u < last; u++) {
+                int[] unit = layout.unit(u);
+                for (long bit = 1; bit <= (1L << n) - 1; bit <<= 1) {
+                    // find the single row, column, or box every candidate for this number lies in
+                    int row = -1;
+                    int column = -1;
+                    int section = -1;
+                    int found = 0;
+                    for (int cell : unit) {
+                        if (values[cell] != 0 || (candidates[cell] & bit) == 0) continue;
+                        row = found == 0 || row == layout.rowOf(cell) ? layout.rowOf(cell) : -2;
+                        column = found == 0 || column == layout.columnOf(cell) ? layout.columnOf(cell) : -2;
+                        section = found == 0 || section == layout.sectionOf(cell) ? layout.sectionOf(cell) : -2;
+                        found++;
+                    }
+                    if (found < 2) continue;
+
+                    int target;
+                    if (!pointing) target = section >= 0 ? 2 * n + section : -1;
+                    else target = row >= 0 ? row : (column >= 0 ? n + column : -1);
+                    if (target < 0) continue;
+
+                    // remove the number from the cells of the target that lie outside this unit
+                    int count = 0;
+                    for (int cell : layout.unit(target)) {
+                        if (values[cell] != 0 || (candidates[cell] & bit) == 0 || inUnit(cell, u)) continue;
+                        targets[count++] = cell;
+                    }
+                    if (count > 0) {
+                        Deduction rule = pointing ? Deduction.POINTING : Deduction.CLAIMING;
+                        return remove(rule, u, bit, targets, count, bit);
+                    }
+                }
+            }
+            return null;
+        }
+
+        private boolean inUnit(int cell, int u) {
+            if (u < n) return layout.rowOf(cell) == u;
+            if (u < 2 * n) return layout.columnOf(cell) == u - n;
+            return layout.sectionOf(cell) == u - 2 * n;
+        }
+
+        /**
+         * Removes candidates from cells and describes the removal
+         * @param rule the rule that found the removal
+         * @param unit the unit the rule was found in
+         * @param numbers the numbers the rule is about
+         * @param targets the cells that lose candidates, in the first count entries
+         * @param count the number of cells
+         * @param removed the candidates to remove
+         * @return the removal
+         */
+        private Hint remove(Deduction rule, int unit, long numbers, int[] targets, int count, long removed) {
+            int[] cells = new int[count];
+            long union = 0;
+            for (int i = 0; i < count; i++) {
+                cells[i] = targets[i];
+                union |= candidates[targets[i]] & removed;
+                candidates[targets[i]] &= ~removed;
+            }
+            return new Hint(n, rule, unit, numbers, cells, union, List.of());
+        }
+    }
+}
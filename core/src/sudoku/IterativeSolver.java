@@ -0,0 +1,347 @@
+package sudoku;
+
+/**
+ * A headless backtracking solver that keeps its whole search in preallocated primitive arrays instead of the call
+ * stack
+ * Each depth of the search owns one slot of three parallel arrays: the cell it fills, the candidates it has not
+ * tried yet and the number it placed, which doubles as the undo trail. Descending and backtracking just move the
+ * depth index, so no node allocates and no board size can overflow the thread stack.
+ * Cells are chosen in minimum remaining values order.
+ * Every search emits a sudoku.Solve Flight Recorder event when recording is on, and a SolveStats passed to solve is
+ * filled in with the search counters, including how many numbers were tried in each cell. SolveOptions stop the
+ * search loop once their deadline, node limit or cancellation token is hit.
+ * An instance is not thread safe but can be reused for any number of puzzles without reallocating.
+ * @author Ben Cullivan
+ */
+public class IterativeSolver implements SolverEngine {
+
+    /**
+     * search state, allocated once per board size
+     */
+    private int n;
+    private BitGrid grid;
+    private SudokuLayout layout;
+    private int[] board;
+    private int[] empty;
+    private int emptyCount;
+
+    /**
+     * the explicit search stack, indexed by depth
+     */
+    private int[] stackCell;
+    private long[] stackRemaining;
+    private int[] stackNum;
+
+    /**
+     * counters of the last search
+     */
+    private long nodes;
+    private long backtracks;
+    private int maxDepth;
+
+    /**
+     * the limits of the running search and whether it stopped at one of them
+     */
+    private SolveOptions.Budget budget = SolveOptions.Budget.UNLIMITED;
+    private boolean exceeded;
+
+    @Override
+    public boolean solve(int[][] sudoku, int n) {
+        return solve(sudoku, n, null);
+    }
+
+    @Override
+    public boolean solve(Board sudoku) {
+        return solve(sudoku, (SolveStats) null);
+    }
+
+    @Override
+    public SolveStatus solve(Board sudoku, SolveOptions options) {
+        return solve(sudoku, null, options);
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array, recording what the search did
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @param stats the object to fill in, or null to skip the per-cell counters
+     * @return whether the sudoku was successfully solved
+     */
+    public boolean solve(int[][] sudoku, int n, SolveStats stats) {
+        return solve(sudoku, n, stats, SolveOptions.NONE) == SolveStatus.SOLVED;
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array, stopping once the options run out
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @param stats the object to fill in, or null to skip the per-cell counters
+     * @param options the deadline, node limit and cancellation token of the solve
+     * @return whether the sudoku was solved, has no solution, or ran out of budget, in which case it is unchanged
+     */
+    public SolveStatus solve(int[][] sudoku, int n, SolveStats stats, SolveOptions options) {
+        // make sure the search state matches the board size
+        if (grid == null || this.n != n) allocate(n);
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+
+        // run the search and copy the solution back into the input array
+        for (int cell = 0; cell < n * n; cell++) {
+            board[cell] = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+        }
+        if (run(1, stats, options.start()) == 0) {
+            return exceeded ? SolveStatus.BUDGET_EXCEEDED : SolveStatus.UNSOLVABLE;
+        }
+        for (int cell = 0; cell < n * n; cell++) {
+            sudoku[layout.rowOf(cell)][layout.columnOf(cell)] = board[cell];
+        }
+        return SolveStatus.SOLVED;
+    }
+
+    /**
+     * Attempts to solve the board in place, recording what the search did
+     * @param sudoku the board to be solved
+     * @param stats the object to fill in, or null to skip the per-cell counters
+     * @return whether the board was successfully solved
+     */
+    public boolean solve(Board sudoku, SolveStats stats) {
+        return solve(sudoku, stats, SolveOptions.NONE) == SolveStatus.SOLVED;
+    }
+
+    /**
+     * Attempts to solve the board in place, stopping once the options run out
+     * @param sudoku the board to be solved
+     * @param stats the object to fill in, or null to skip the per-cell counters
+     * @param options the deadline, node limit and cancellation token of the solve
+     * @return whether the board was solved, has no solution, or ran out of budget, in which case it is unchanged
+     */
+    public SolveStatus solve(Board sudoku, SolveStats stats, SolveOptions options) {
+        int n = sudoku.getN();
+        if (grid == null || this.n != n) allocate(n);
+        for (int cell = 0; cell < n * n; cell++) board[cell] = sudoku.getCell(cell);
+        if (run(1, stats, options.start()) == 0) {
+            return exceeded ? SolveStatus.BUDGET_EXCEEDED : SolveStatus.UNSOLVABLE;
+        }
+        for (int cell = 0; cell < n * n; cell++) sudoku.setCell(cell, board[cell]);
+        return SolveStatus.SOLVED;
+    }
+
+    /**
+     * Counts the solutions of a sudoku without modifying it, stopping as soon as limit solutions have been found
+     * @param sudoku the sudoku whose solutions are counted
+     * @param n the height and width of the sudoku which is nxn
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions, at most limit
+     */
+    public long countSolutions(int[][] sudoku, int n, long limit) {
+        if (grid == null || this.n != n) allocate(n);
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+        for (int cell = 0; cell < n * n; cell++) {
+            board[cell] = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+        }
+        return run(limit, null, SolveOptions.Budget.UNLIMITED);
+    }
+
+    /**
+     * Counts the solutions of a board without modifying it, stopping as soon as limit solutions have been found
+     * @param sudoku the board whose solutions are counted
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions, at most limit
+     */
+    public long countSolutions(Board sudoku, long limit) {
+        int n = sudoku.getN();
+        if (grid == null || this.n != n) allocate(n);
+        for (int cell = 0; cell < n * n; cell++) board[cell] = sudoku.getCell(cell);
+        return run(limit, null, SolveOptions.Budget.UNLIMITED);
+    }
+
+    /**
+     * Counts the solutions of a board without modifying it within a budget shared with other searches
+     * @param sudoku the board whose solutions are counted
+     * @param limit the number of solutions after which counting stops
+     * @param budget the limits the search stops at
+     * @return the number of solutions, at most limit, or -1 if the budget ran out first
+     */
+    long countSolutions(Board sudoku, long limit, SolveOptions.Budget budget) {
+        int n = sudoku.getN();
+        if (grid == null || this.n != n) allocate(n);
+        for (int cell = 0; cell < n * n; cell++) board[cell] = sudoku.getCell(cell);
+        long found = run(limit, null, budget);
+        return exceeded ? -1 : found;
+    }
+
+    /**
+     * @param sudoku the board to check
+     * @return whether the board has exactly one solution
+     */
+    public boolean hasUniqueSolution(Board sudoku) {
+        return countSolutions(sudoku, 2) == 1;
+    }
+
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * Allocates the search state for a board size
+     * @param n the height and width of the sudoku
+     */
+    private void allocate(int n) {
+        this.n = n;
+        grid = new BitGrid(n);
+        layout = grid.getLayout();
+        int cells = n * n;
+        board = new int[cells];
+        empty = new int[cells];
+        stackCell = new int[cells];
+        stackRemaining = new long[cells];
+        stackNum = new int[cells];
+    }
+
+    /**
+     * Runs the search, filling in the stats and emitting a Flight Recorder event when either is wanted
+     * @param limit the number of solutions after which the search stops
+     * @param stats the object to fill in, or null
+     * @param budget the limits the search stops at
+     * @return the number of solutions found, at most limit, or found so far if the search ran out of budget
+     */
+    private long run(long limit, SolveStats stats, SolveOptions.Budget budget) {
+        SolveEvent event = new SolveEvent();
+        event.begin();
+        long start = 0;
+        if (stats != null) {
+            stats.reset(n * n);
+            start = System.nanoTime();
+        }
+
+        this.budget = budget;
+        exceeded = false;
+        long found = search(limit, stats, start);
+        this.budget = SolveOptions.Budget.UNLIMITED;
+
+        if (stats != null) {
+            SolveStatus status = exceeded ? SolveStatus.BUDGET_EXCEEDED
+                    : found > 0 ? SolveStatus.SOLVED : SolveStatus.UNSOLVABLE;
+            stats.finish(status, nodes, backtracks, maxDepth, System.nanoTime() - start);
+        }
+        if (event.shouldCommit()) {
+            event.engine = "ITERATIVE";
+            event.n = n;
+            event.solved = found > 0;
+            event.nodes = nodes;
+            event.backtracks = backtracks;
+            event.maxDepth = maxDepth;
+            event.commit();
+        }
+        return found;
+    }
+
+    /**
+     * Loads the board array into the grid, collects the empty cells and runs the search loop
+     * The search stops at the limit'th solution, which is then left in the board array.
+     * @param limit the number of solutions after which the search stops
+     * @param stats the object whose per-cell counters and first solution time are filled in, or null
+     * @param start the nanoTime the solve started at, used only with stats
+     * @return the number of solutions found, at most limit
+     */
+    private long search(long limit, SolveStats stats, long start) {
+        // load the starting numbers, rejecting boards whose starting numbers conflict
+        grid.clear();
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        emptyCount = 0;
+        for (int cell = 0; cell < n * n; cell++) {
+            int num = board[cell];
+            if (num == 0) {
+                empty[emptyCount++] = cell;
+            } else {
+                if ((grid.candidatesCell(cell) & (1L << (num - 1))) == 0) return 0;
+                grid.addCell(num, cell);
+            }
+        }
+        if (limit <= 0) return 0;
+        if (emptyCount == 0) {
+            if (stats != null) stats.firstSolution(System.nanoTime() - start);
+            return 1;
+        }
+
+        int[] guesses = stats == null ? null : stats.guessCounters();
+        long found = 0;
+        int depth = 0;
+        boolean descending = true;
+        while (true) {
+            if (descending) {
+                // entering a new depth: every empty cell is filled or a cell must be chosen
+                nodes++;
+                if (budget.isExceeded(nodes)) {
+                    exceeded = true;
+                    return found;
+                }
+                if (depth > maxDepth) maxDepth = depth;
+                if (depth == emptyCount) {
+                    found++;
+                    if (stats != null) stats.firstSolution(System.nanoTime() - start);
+                    if (found >= limit) return found;
+                    // keep counting by backtracking out of the last depth
+                    depth--;
+                    descending = false;
+                    continue;
+                }
+                int cell = selectCell(depth);
+                stackCell[depth] = cell;
+                stackRemaining[depth] = grid.candidatesCell(cell);
+            } else {
+                // returning to a depth: take back the number it placed
+                int cell = stackCell[depth];
+                grid.removeCell(stackNum[depth], cell);
+                board[cell] = 0;
+            }
+
+            // try the next untried candidate, or backtrack when there is none
+            long remaining = stackRemaining[depth];
+            if (remaining == 0) {
+                if (depth == 0) return found;
+                backtracks++;
+                depth--;
+                descending = false;
+                continue;
+            }
+            long bit = remaining & -remaining;
+            stackRemaining[depth] = remaining ^ bit;
+            int num = Long.numberOfTrailingZeros(bit) + 1;
+            int cell = stackCell[depth];
+            stackNum[depth] = num;
+            if (guesses != null) guesses[cell]++;
+            grid.addCell(num, cell);
+            board[cell] = num;
+            depth++;
+            descending = true;
+        }
+    }
+
+    /**
+     * Moves the unfilled cell with the fewest candidates to position depth of the empty array
+     * @param depth the first position of the unfilled part of the empty array
+     * @return the chosen cell
+     */
+    private int selectCell(int depth) {
+        int best = depth;
+        int bestCount = Integer.MAX_VALUE;
+        for (int i = depth; i < emptyCount && bestCount > 1; i++) {
+            int count = Long.bitCount(grid.candidatesCell(empty[i]));
+            if (count < bestCount) {
+                best = i;
+                bestCount = count;
+            }
+        }
+        int cell = empty[best];
+        empty[best] = empty[depth];
+        empty[depth] = cell;
+        return cell;
+    }
+}
@@ -0,0 +1,411 @@
+package sudoku;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solves a batch of sudokus 64 at a time by running naked and hidden singles on all of them at once, with pointing,
+ * claiming and pairs whenever singles stall
+ * The candidates are bit sliced: one long per cell and number, with bit b set when that number is still possible in
+ * that cell of board b, so every AND, OR and bit trick below works on 64 boards in a single instruction. Counting
+ * how often a number appears in a cell's candidates or in a unit is done with the "seen once, seen twice" pair of
+ * words, and a placement clears the number from the peers of the cell in every board it was made for.
+ * Boards that these rules cannot finish are handed to the fallback engine through solve(int[][], int), starting from
+ * the numbers already placed. Easy and medium puzzles rarely need it, so most of a batch never leaves the lockstep
+ * loop. Boards whose givens conflict or that run out of candidates are reported unsolved and left unchanged.
+ * An instance is not thread safe but can be reused for any number of batches without reallocating.
+ * @author Ben Cullivan
+ */
+public class LockstepSolver {
+
+    /**
+     * the number of boards solved together, one per bit of a long
+     */
+    public static final int LANES = Long.SIZE;
+
+    private final SolverEngine fallback;
+
+    /**
+     * state of the boards in flight, allocated once per board size
+     */
+    private int n;
+    private SudokuLayout layout;
+    private long[] candidates;
+    private long[] solved;
+    private int[][] scratch;
+
+    /**
+     * for every place a row or column meets a section: its cells, the rest of the line and the rest of the section
+     */
+    private int[][] intersections;
+    private int[][] lineRests;
+    private int[][] sectionRests;
+
+    /**
+     * the boards where each cell of a unit has exactly two candidates, and where each number has exactly two places
+     */
+    private long[] twoCandidates;
+    private long[] twoPlaces;
+
+    /**
+     * the number of boards of the last batch that needed the fallback engine
+     */
+    private long fallbacks;
+
+    /**
+     * Creates a lockstep solver that falls back to dancing links
+     */
+    public LockstepSolver() {
+        this(new DancingLinksSolver());
+    }
+
+    /**
+     * @param fallback the engine that solves the boards the lockstep rules cannot finish
+     */
+    public LockstepSolver(SolverEngine fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Solves every sudoku in the list in place
+     * @param puzzles the sudokus to be solved
+     * @param n the height and width of each sudoku which is nxn
+     * @return whether each puzzle was solved, in input order, and the throughput of the batch
+     */
+    public BatchResult solveAll(List<int[][]> puzzles, int n) {
+        if (layout == null || this.n != n) allocate(n);
+        boolean[] results = new boolean[puzzles.size()];
+        long solvedCount = 0;
+        long start = System.nanoTime();
+        fallbacks = 0;
+        for (int first = 0; first < puzzles.size(); first += LANES) {
+            solvedCount += solveGroup(puzzles, first, Math.min(LANES, puzzles.size() - first), results);
+        }
+        return new BatchResult(results, puzzles.size(), solvedCount, System.nanoTime() - start);
+    }
+
+    /**
+     * @return the number of boards of the last batch that the lockstep rules could not finish
+     */
+    public long getFallbackCount() {
+        return fallbacks;
+    }
+
+    /**
+     * Allocates the state for a board size
+     * @param n the height and width of the sudoku
+     */
+    private void allocate(int n) {
+        this.n = n;
+        layout = SudokuLayout.forSize(n);
+        candidates = new long[n * n * n];
+        solved = new long[n * n];
+        scratch = new int[n][n];
+
+        twoCandidates = new long[n];
+        twoPlaces = new long[n];
+        int root = layout.getRoot();
+        intersections = new int[2 * n * root][];
+        lineRests = new int[2 * n * root][];
+        sectionRests = new int[2 * n * root][];
+        int i = 0;
+        for (int line = 0; line < 2 * n; line++) {
+            for (int k = 0; k < root; k++, i++) {
+                // the k-th section along the line
+                int section = 2 * n + layout.sectionOf(layout.unit(line)[k * root]);
+                intersections[i] = split(layout.unit(line), section, true);
+                lineRests[i] = split(layout.unit(line), section, false);
+                sectionRests[i] = split(layout.unit(section), line, false);
+            }
+        }
+    }
+
+    /**
+     * @param unit the cells of one unit
+     * @param other another unit
+     * @param inside whether to keep the cells that are in the other unit or the ones that are not
+     * @return the cells of the unit that are, or are not, in the other unit
+     */
+    private int[] split(int[] unit, int other, boolean inside) {
+        return Arrays.stream(unit).filter(cell -> inUnit(cell, other) == inside).toArray();
+    }
+
+    private boolean inUnit(int cell, int u) {
+        if (u < n) return layout.rowOf(cell) == u;
+        if (u < 2 * n) return layout.columnOf(cell) == u - n;
+        return layout.sectionOf(cell) == u - 2 * n;
+    }
+
+    /**
+     * Solves up to 64 consecutive puzzles of the batch together
+     * @param puzzles the batch
+     * @param first the index of the first puzzle of the group
+     * @param lanes the number of puzzles in the group
+     * @param results whether each puzzle of the batch was solved
+     * @return the number of puzzles of the group that were solved
+     */
+    private int solveGroup(List<int[][]> puzzles, int first, int lanes, boolean[] results) {
+        long active = lanes == LANES ? -1L : (1L << lanes) - 1;
+        Arrays.fill(candidates, active);
+        Arrays.fill(solved, 0);
+
+        // place the givens one board at a time, dropping a board whose givens conflict
+        long dead = 0;
+        for (int lane = 0; lane < lanes; lane++) {
+            int[][] sudoku = puzzles.get(first + lane);
+            if (sudoku.length != n || sudoku[0].length != n) {
+                throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+            }
+            long bit = 1L << lane;
+            for (int cell = 0; cell < n * n && (dead & bit) == 0; cell++) {
+                int num = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+                if (num == 0) continue;
+                if (num < 0 || num > n || (candidates[cell * n + num - 1] & bit) == 0) dead |= bit;
+                else assign(cell, num - 1, bit);
+            }
+        }
+
+        dead |= propagate(active & ~dead);
+        active &= ~dead;
+        long complete = active;
+        for (int cell = 0; cell < n * n; cell++) complete &= solved[cell];
+
+        // copy out the finished boards and hand the rest to the fallback from where they were left
+        int count = 0;
+        for (int lane = 0; lane < lanes; lane++) {
+            long bit = 1L << lane;
+            int[][] sudoku = puzzles.get(first + lane);
+            if ((active & bit) == 0) {
+                results[first + lane] = false;
+                continue;
+            }
+            if ((complete & bit) != 0) {
+                extract(bit, sudoku);
+                results[first + lane] = true;
+                count++;
+                continue;
+            }
+            extract(bit, scratch);
+            fallbacks++;
+            results[first + lane] = fallback.solve(scratch, n);
+            if (results[first + lane]) {
+                for (int row = 0; row < n; row++) System.arraycopy(scratch[row], 0, sudoku[row], 0, n);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Applies naked and hidden singles to every active board until none of them changes, falling back to pointing and
+     * claiming and then to pairs when singles stall
+     * @param active the boards still being solved
+     * @return the boards that turned out to have no solution
+     */
+    private long propagate(long active) {
+        long dead = 0;
+        boolean changed = true;
+        while (changed && active != 0) {
+            changed = false;
+
+            // naked singles: a cell with exactly one candidate left
+            for (int cell = 0; cell < n * n; cell++) {
+                int base = cell * n;
+                long once = 0;
+                long twice = 0;
+                for (int d = 0; d < n; d++) {
+                    twice |= once & candidates[base + d];
+                    once |= candidates[base + d];
+                }
+                dead |= active & ~once;
+                long single = active & ~dead & once & ~twice & ~solved[cell];
+                for (int d = 0; d < n && single != 0; d++) {
+                    long placed = single & candidates[base + d];
+                    if (placed == 0) continue;
+                    assign(cell, d, placed);
+                    single &= ~placed;
+                    changed = true;
+                }
+            }
+
+            // hidden singles: a number with exactly one place left in a row, column or section
+            for (int u = 0; u < 3 * n; u++) {
+                int[] unit = layout.unit(u);
+                for (int d = 0; d < n; d++) {
+                    long once = 0;
+                    long twice = 0;
+                    for (int cell : unit) {
+                        twice |= once & candidates[cell * n + d];
+                        once |= candidates[cell * n + d];
+                    }
+                    dead |= active & ~once;
+                    long hidden = active & ~dead & once & ~twice;
+                    for (int i = 0; i < unit.length && hidden != 0; i++) {
+                        int cell = unit[i];
+                        long placed = hidden & candidates[cell * n + d];
+                        if (placed == 0) continue;
+                        hidden &= ~placed;
+                        placed &= ~solved[cell];
+                        if (placed == 0) continue;
+                        assign(cell, d, placed);
+                        changed = true;
+                    }
+                }
+            }
+            active &= ~dead;
+            if (!changed) changed = lockedCandidates(active);
+            if (!changed) changed = pairs(active);
+        }
+        return dead;
+    }
+
+    /**
+     * Pointing and claiming: when the candidates for a number in a section all lie in one row or column, the number
+     * is removed from the rest of that line, and when its candidates in a row or column all lie in one section, it is
+     * removed from the rest of that section
+     * @param active the boards still being solved
+     * @return whether any candidate was removed
+     */
+    private boolean lockedCandidates(long active) {
+        boolean changed = false;
+        for (int i = 0; i < intersections.length; i++) {
+            for (int d = 0; d < n; d++) {
+                long inside = 0;
+                for (int cell : intersections[i]) inside |= candidates[cell * n + d];
+                inside &= active;
+                if (inside == 0) continue;
+                long lineRest = 0;
+                for (int cell : lineRests[i]) lineRest |= candidates[cell * n + d];
+                long sectionRest = 0;
+                for (int cell : sectionRests[i]) sectionRest |= candidates[cell * n + d];
+                changed |= eliminate(lineRests[i], d, inside & ~sectionRest & lineRest);
+                changed |= eliminate(sectionRests[i], d, inside & ~lineRest & sectionRest);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Naked and hidden pairs: two cells of a unit left with the same two candidates take those numbers from the rest
+     * of the unit, and two numbers left in the same two cells of a unit take those cells from the other numbers
+     * @param active the boards still being solved
+     * @return whether any candidate was removed
+     */
+    private boolean pairs(long active) {
+        boolean changed = false;
+        for (int u = 0; u < 3 * n; u++) {
+            int[] unit = layout.unit(u);
+            for (int i = 0; i < n; i++) {
+                int base = unit[i] * n;
+                long once = 0;
+                long twice = 0;
+                long more = 0;
+                for (int d = 0; d < n; d++) {
+                    long bits = candidates[base + d];
+                    more |= twice & bits;
+                    twice |= once & bits;
+                    once |= bits;
+                }
+                twoCandidates[i] = active & twice & ~more;
+            }
+            for (int d = 0; d < n; d++) {
+                long once = 0;
+                long twice = 0;
+                long more = 0;
+                for (int cell : unit) {
+                    long bits = candidates[cell * n + d];
+                    more |= twice & bits;
+                    twice |= once & bits;
+                    once |= bits;
+                }
+                twoPlaces[d] = active & twice & ~more;
+            }
+
+            // naked pairs: the boards where two cells with two candidates have the same ones
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n && twoCandidates[i] != 0; j++) {
+                    long lanes = twoCandidates[i] & twoCandidates[j];
+                    for (int d = 0; d < n && lanes != 0; d++) {
+                        lanes &= ~(candidates[unit[i] * n + d] ^ candidates[unit[j] * n + d]);
+                    }
+                    for (int d = 0; d < n && lanes != 0; d++) {
+                        long pair = lanes & candidates[unit[i] * n + d];
+                        for (int k = 0; k < n && pair != 0; k++) {
+                            if (k == i || k == j) continue;
+                            long before = candidates[unit[k] * n + d];
+                            candidates[unit[k] * n + d] = before & ~pair;
+                            if (candidates[unit[k] * n + d] != before) changed = true;
+                        }
+                    }
+                }
+            }
+
+            // hidden pairs: the boards where two numbers with two places have the same ones
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n && twoPlaces[a] != 0; b++) {
+                    long lanes = twoPlaces[a] & twoPlaces[b];
+                    for (int i = 0; i < n && lanes != 0; i++) {
+                        lanes &= ~(candidates[unit[i] * n + a] ^ candidates[unit[i] * n + b]);
+                    }
+                    for (int i = 0; i < n && lanes != 0; i++) {
+                        long pair = lanes & candidates[unit[i] * n + a];
+                        if (pair == 0) continue;
+                        int base = unit[i] * n;
+                        for (int d = 0; d < n; d++) {
+                            if (d == a || d == b) continue;
+                            long before = candidates[base + d];
+                            candidates[base + d] = before & ~pair;
+                            if (candidates[base + d] != before) changed = true;
+                        }
+                    }
+                }
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param cells the cells to remove the number from
+     * @param digit the number minus one
+     * @param lanes the boards it is removed in
+     * @return whether it was removed from any of them
+     */
+    private boolean eliminate(int[] cells, int digit, long lanes) {
+        if (lanes == 0) return false;
+        for (int cell : cells) candidates[cell * n + digit] &= ~lanes;
+        return true;
+    }
+
+    /**
+     * Places a number in a cell of some boards, clearing the cell's other candidates and the number from its peers
+     * @param cell the flat index of the cell
+     * @param digit the number minus one
+     * @param lanes the boards the number is placed in
+     */
+    private void assign(int cell, int digit, long lanes) {
+        int base = cell * n;
+        for (int d = 0; d < n; d++) {
+            if (d != digit) candidates[base + d] &= ~lanes;
+        }
+        solved[cell] |= lanes;
+        for (int peer : layout.peersOf(cell)) candidates[peer * n + digit] &= ~lanes;
+    }
+
+    /**
+     * Writes the placed numbers of one board into an array, 0 for the cells not filled yet
+     * @param bit the bit of the board
+     * @param sudoku the array to overwrite
+     */
+    private void extract(long bit, int[][] sudoku) {
+        for (int cell = 0; cell < n * n; cell++) {
+            int num = 0;
+            if ((solved[cell] & bit) != 0) {
+                int base = cell * n;
+                for (int d = 0; d < n && num == 0; d++) {
+                    if ((candidates[base + d] & bit) != 0) num = d + 1;
+                }
+            }
+            sudoku[layout.rowOf(cell)][layout.columnOf(cell)] = num;
+        }
+    }
+}
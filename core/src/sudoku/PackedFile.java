@@ -0,0 +1,520 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * A compact binary file of fixed size puzzle records that is read and written through memory mapped slices
+ * The file starts with a 16 byte header: the magic "SDKP", a version byte, n, a flags byte, the number of bits per
+ * cell, and the record count as a little endian long. Every record then holds the puzzle packed at the fewest bits
+ * that fit n (4 bits for 9x9, so 41 bytes), followed by the solution packed the same way if the file has solutions,
+ * and by a status byte and the nodes and nanoseconds of the solve as little endian longs if it has stats.
+ * Records have a fixed size, so any record can be found from its index. Workers map their own slice of the file
+ * and read and write it in place, and a solve that was stopped resumes by skipping the records whose status is set.
+ * Usage: java PackedFile pack input.txt output.sdk [n] | unpack input.sdk output.txt [solutions] | solve file.sdk
+ * @author Ben Cullivan
+ */
+public class PackedFile implements Closeable {
+
+    public static final int HEADER_BYTES = 16;
+    public static final int STATS_BYTES = 17;
+
+    /**
+     * the status of a record whose puzzle has not been solved yet, was solved, or has no solution
+     */
+    public static final int PENDING = 0;
+    public static final int SOLVED = 1;
+    public static final int UNSOLVABLE = 2;
+
+    private static final int MAGIC = 0x504b4453;
+    private static final byte VERSION = 1;
+    private static final int HAS_SOLUTIONS = 1;
+    private static final int HAS_STATS = 2;
+
+    /**
+     * the most records mapped at once, lowered for large records so a mapping always fits in the 2GB of a buffer
+     */
+    private static final long MAX_SLICE = 1 << 20;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final int n;
+    private final int bits;
+    private final int flags;
+    private final long count;
+    private final int puzzleBytes;
+    private final int recordBytes;
+    private final long maxSlice;
+
+    private PackedFile(FileChannel channel, boolean writable, int n, int flags, long count) {
+        this.channel = channel;
+        this.writable = writable;
+        this.n = n;
+        this.flags = flags;
+        this.count = count;
+        bits = bitsPerCell(n);
+        puzzleBytes = packedBytes(n);
+        recordBytes = puzzleBytes * ((flags & HAS_SOLUTIONS) != 0 ? 2 : 1)
+                + ((flags & HAS_STATS) != 0 ? STATS_BYTES : 0);
+        maxSlice = Math.min(MAX_SLICE, Integer.MAX_VALUE / recordBytes);
+    }
+
+    /**
+     * Creates or replaces a file with room for a fixed number of empty records
+     * @param path the file to create
+     * @param n the height and width of each sudoku which is nxn
+     * @param count the number of records
+     * @param solutions whether every record has room for a solution
+     * @param stats whether every record has room for a status and solve stats
+     * @return the file, open for reading and writing
+     */
+    public static PackedFile create(Path path, int n, long count, boolean solutions, boolean stats)
+            throws IOException {
+        SudokuLayout.forSize(n);
+        if (count < 0) throw new IllegalArgumentException("The record count cannot be negative.");
+        int flags = (solutions ? HAS_SOLUTIONS : 0) | (stats ? HAS_STATS : 0);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        PackedFile file = new PackedFile(channel, true, n, flags, count);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).put(VERSION).put((byte) n).put((byte) flags).put((byte) file.bits).putLong(count);
+        header.flip();
+        while (header.hasRemaining()) channel.write(header, header.position());
+        // the records start out zeroed, which is an empty puzzle with a pending status
+        channel.truncate(file.offsetOf(count));
+        if (channel.size() < file.offsetOf(count)) {
+            channel.write(ByteBuffer.allocate(1), file.offsetOf(count) - 1);
+        }
+        return file;
+    }
+
+    /**
+     * @param path an existing packed file
+     * @param writable whether solutions and stats will be written to it
+     * @return the file
+     * @throws IOException if the file cannot be read or is not a packed puzzle file
+     */
+    public static PackedFile open(Path path, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) ;
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.get() != VERSION) {
+                throw new IOException(path + " is not a packed puzzle file.");
+            }
+            int n = header.get();
+            int flags = header.get();
+            int bits = header.get();
+            long count = header.getLong();
+            if (!SudokuLayout.isSupported(n) || bits != bitsPerCell(n)) {
+                throw new IOException(path + " has an unsupported board size.");
+            }
+            PackedFile file = new PackedFile(channel, writable, n, flags, count);
+            if (channel.size() < file.offsetOf(count)) throw new IOException(path + " is truncated.");
+            return file;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Maps a range of records
+     * @param first the index of the first record
+     * @param length the number of records, at most getMaxSlice() at a time
+     * @return a view of the records that reads and writes the file directly
+     */
+    public Slice map(long first, long length) throws IOException {
+        if (first < 0 || length < 0 || first + length > count || length > maxSlice) {
+            throw new IllegalArgumentException("The slice must lie inside the file and hold at most " + maxSlice
+                    + " records.");
+        }
+        MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                offsetOf(first), length * recordBytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return new Slice(buffer, first, length);
+    }
+
+    /**
+     * @param index the index of a record
+     * @return the position of the record in the file, which is where a stopped reader resumes
+     */
+    public long offsetOf(long index) {
+        return HEADER_BYTES + index * recordBytes;
+    }
+
+    /**
+     * @return the number of records
+     */
+    public long size() {
+        return count;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public boolean hasSolutions() {
+        return (flags & HAS_SOLUTIONS) != 0;
+    }
+
+    public boolean hasStats() {
+        return (flags & HAS_STATS) != 0;
+    }
+
+    /**
+     * @return the number of bytes of each record
+     */
+    public int getRecordBytes() {
+        return recordBytes;
+    }
+
+    /**
+     * @return the most records one slice may hold, 2^20 or fewer when 2^20 records would not fit in one buffer
+     */
+    public long getMaxSlice() {
+        return maxSlice;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @param n the height and width of a sudoku
+     * @return the fewest bits that hold every number from 0 to n
+     */
+    public static int bitsPerCell(int n) {
+        return 32 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /**
+     * @param n the height and width of a sudoku
+     * @return the number of bytes a packed board takes
+     */
+    public static int packedBytes(int n) {
+        return (n * n * bitsPerCell(n) + 7) / 8;
+    }
+
+    /**
+     * A mapped range of records, read and written without copying the file
+     * A slice is not thread safe, so every worker maps its own.
+     */
+    public final class Slice {
+
+        private final MappedByteBuffer buffer;
+        private final long first;
+        private final long length;
+
+        private Slice(MappedByteBuffer buffer, long first, long length) {
+            this.buffer = buffer;
+            this.first = first;
+            this.length = length;
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param board the board to overwrite with the record's puzzle
+         */
+        public void readPuzzle(long index, Board board) {
+            unpack(positionOf(index), board);
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param sudoku the nxn array to overwrite with the record's puzzle
+         */
+        public void readPuzzle(long index, int[][] sudoku) {
+            Board board = new Board(n);
+            readPuzzle(index, board);
+            board.copyTo(sudoku);
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param board the puzzle to store in the record
+         */
+        public void writePuzzle(long index, Board board) {
+            pack(board, positionOf(index));
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param sudoku the nxn puzzle to store in the record
+         */
+        public void writePuzzle(long index, int[][] sudoku) {
+            writePuzzle(index, Board.fromArray(sudoku));
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param board the board to overwrite with the record's solution
+         */
+        public void readSolution(long index, Board board) {
+            unpack(solutionOf(index), board);
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param board the solution to store in the record
+         */
+        public void writeSolution(long index, Board board) {
+            pack(board, solutionOf(index));
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @return PENDING, SOLVED, or UNSOLVABLE
+         */
+        public int getStatus(long index) {
+            return buffer.get(statsOf(index));
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @return the search nodes the solve of the record visited
+         */
+        public long getNodes(long index) {
+            return buffer.getLong(statsOf(index) + 1);
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @return the time the solve of the record took in nanoseconds
+         */
+        public long getNanos(long index) {
+            return buffer.getLong(statsOf(index) + 9);
+        }
+
+        /**
+         * @param index the index of a record in the file
+         * @param status SOLVED or UNSOLVABLE
+         * @param nodes the search nodes the solve visited
+         * @param nanos the time the solve took in nanoseconds
+         */
+        public void writeStats(long index, int status, long nodes, long nanos) {
+            int position = statsOf(index);
+            buffer.putLong(position + 1, nodes);
+            buffer.putLong(position + 9, nanos);
+            // the status goes last, so a record only reads as done once its stats are complete
+            buffer.put(position, (byte) status);
+        }
+
+        /**
+         * Solves every pending record of the slice and stores its solution and stats
+         * Records that already have a status are skipped, so a stopped solve picks up where it left off.
+         * @param engine the algorithm used to solve the puzzles
+         * @return the number of puzzles solved by this call and the throughput
+         */
+        public BatchResult solve(SolverEngine engine) {
+            if (!hasSolutions() || !hasStats()) {
+                throw new IllegalStateException("Solving in place needs a file with solutions and stats.");
+            }
+            Board board = new Board(n);
+            long puzzles = 0;
+            long solved = 0;
+            long start = System.nanoTime();
+            for (long index = first; index < first + length; index++) {
+                if (getStatus(index) != PENDING) continue;
+                readPuzzle(index, board);
+                long began = System.nanoTime();
+                boolean done = engine.solve(board);
+                long nanos = System.nanoTime() - began;
+                if (done) {
+                    writeSolution(index, board);
+                    solved++;
+                }
+                writeStats(index, done ? SOLVED : UNSOLVABLE, engine.getNodeCount(), nanos);
+                puzzles++;
+            }
+            return new BatchResult(null, puzzles, solved, System.nanoTime() - start);
+        }
+
+        /**
+         * Writes the mapped records back to the file
+         */
+        public void force() {
+            buffer.force();
+        }
+
+        public long getFirst() {
+            return first;
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        private int positionOf(long index) {
+            if (index < first || index >= first + length) {
+                throw new IndexOutOfBoundsException("Record " + index + " is outside the slice.");
+            }
+            return (int) ((index - first) * recordBytes);
+        }
+
+        private int solutionOf(long index) {
+            if (!hasSolutions()) throw new IllegalStateException("The file has no solutions.");
+            return positionOf(index) + puzzleBytes;
+        }
+
+        private int statsOf(long index) {
+            if (!hasStats()) throw new IllegalStateException("The file has no stats.");
+            return positionOf(index) + recordBytes - STATS_BYTES;
+        }
+
+        /**
+         * Writes the cells low bits first, each one starting where the previous one ended
+         */
+        private void pack(Board board, int position) {
+            if (board.getN() != n) throw new IllegalArgumentException("The board must be " + n + "x" + n + ".");
+            int accumulator = 0;
+            int filled = 0;
+            for (int cell = 0; cell < n * n; cell++) {
+                accumulator |= board.getCell(cell) << filled;
+                filled += bits;
+                while (filled >= 8) {
+                    buffer.put(position++, (byte) accumulator);
+                    accumulator >>>= 8;
+                    filled -= 8;
+                }
+            }
+            if (filled > 0) buffer.put(position, (byte) accumulator);
+        }
+
+        private void unpack(int position, Board board) {
+            if (board.getN() != n) throw new IllegalArgumentException("The board must be " + n + "x" + n + ".");
+            int mask = (1 << bits) - 1;
+            int accumulator = 0;
+            int available = 0;
+            for (int cell = 0; cell < n * n; cell++) {
+                if (available < bits) {
+                    accumulator |= (buffer.get(position++) & 0xff) << available;
+                    available += 8;
+                }
+                int num = accumulator & mask;
+                if (num > n) throw new IllegalStateException("A packed cell holds " + num + ".");
+                board.setCell(cell, num);
+                accumulator >>>= bits;
+                available -= bits;
+            }
+        }
+    }
+
+    /**
+     * Converts a text file of puzzles into a new packed file
+     * @param text the file to read, in the PuzzleReader format
+     * @param packed the file to create
+     * @param n the height and width of each sudoku which is nxn
+     * @param solutions whether to leave room for solutions and stats
+     * @return the number of puzzles converted
+     */
+    public static long fromText(Path text, Path packed, int n, boolean solutions) throws IOException {
+        Board board = new Board(n);
+        long count = 0;
+        try (PuzzleReader reader = PuzzleReader.open(text, n)) {
+            while (reader.next(board)) count++;
+        }
+        try (PuzzleReader reader = PuzzleReader.open(text, n);
+             PackedFile file = create(packed, n, count, solutions, solutions)) {
+            for (long first = 0; first < count; first += file.getMaxSlice()) {
+                Slice slice = file.map(first, Math.min(file.getMaxSlice(), count - first));
+                for (long index = first; index < first + slice.getLength(); index++) {
+                    reader.next(board);
+                    slice.writePuzzle(index, board);
+                }
+                slice.force();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Converts a packed file into a text file of puzzles or solutions
+     * Records without a solution are written as their puzzle, so their blanks show up as '.'.
+     * @param packed the file to read
+     * @param text the file to create or replace
+     * @param solutions whether to write the solutions instead of the puzzles
+     * @return the number of records converted
+     */
+    public static long toText(Path packed, Path text, boolean solutions) throws IOException {
+        try (PackedFile file = open(packed, false);
+             PuzzleWriter writer = PuzzleWriter.create(text, file.getN())) {
+            Board board = new Board(file.getN());
+            for (long first = 0; first < file.size(); first += file.getMaxSlice()) {
+                Slice slice = file.map(first, Math.min(file.getMaxSlice(), file.size() - first));
+                for (long index = first; index < first + slice.getLength(); index++) {
+                    boolean solved = solutions && file.hasSolutions()
+                            && (!file.hasStats() || slice.getStatus(index) == SOLVED);
+                    if (solved) slice.readSolution(index, board);
+                    else slice.readPuzzle(index, board);
+                    writer.write(board);
+                }
+            }
+            return file.size();
+        }
+    }
+
+    /**
+     * Solves every pending record of a file in parallel, one slice per task, storing the solutions and stats in place
+     * @param packed the file, which must have solutions and stats
+     * @param engineFactory creates the engine used by each worker thread
+     * @return the number of puzzles solved by this call and the throughput
+     */
+    public static BatchResult solveAll(Path packed, Supplier<SolverEngine> engineFactory) throws IOException {
+        ThreadLocal<SolverEngine> engines = ThreadLocal.withInitial(engineFactory);
+        long start = System.nanoTime();
+        try (PackedFile file = open(packed, true)) {
+            // small slices keep every core busy until the end, large ones keep the mapping cost low
+            long sliceLength = Math.min(file.getMaxSlice(), Math.max(1024, file.size() / 64));
+            long slices = (file.size() + sliceLength - 1) / sliceLength;
+            long[] totals = LongStream.range(0, slices).parallel().mapToObj(s -> {
+                try {
+                    long first = s * sliceLength;
+                    Slice slice = file.map(first, Math.min(sliceLength, file.size() - first));
+                    BatchResult result = slice.solve(engines.get());
+                    slice.force();
+                    return new long[] {result.getPuzzles(), result.getSolvedCount()};
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }).reduce(new long[2], (a, b) -> new long[] {a[0] + b[0], a[1] + b[1]});
+            return new BatchResult(null, totals[0], totals[1], System.nanoTime() - start);
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java PackedFile pack input.txt output.sdk [n] | "
+                    + "unpack input.sdk output.txt [solutions] | solve file.sdk");
+            return;
+        }
+        switch (args[0]) {
+            case "pack":
+                int n = args.length > 3 ? Integer.parseInt(args[3]) : 9;
+                System.out.println(fromText(Path.of(args[1]), Path.of(args[2]), n, true) + " puzzles packed");
+                break;
+            case "unpack":
+                boolean solutions = args.length > 3 && args[3].equals("solutions");
+                System.out.println(toText(Path.of(args[1]), Path.of(args[2]), solutions) + " records unpacked");
+                break;
+            case "solve":
+                System.out.println(solveAll(Path.of(args[1]), DancingLinksSolver::new));
+                break;
+            default:
+                System.out.println("Unknown command " + args[0]);
+        }
+    }
+}
@@ -0,0 +1,363 @@
+package sudoku;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Solves a single sudoku on every core by splitting the search tree into independent subtasks
+ * The top few levels of the search branch on the most constrained cell and fork one task per candidate. Below the
+ * split depth each task runs a sequential search on its own copy of the board. As soon as any task finds a solution
+ * every other task stops at its next node, and tasks that have not started yet return immediately.
+ * Solution counting splits the same way, with every task below the split depth counting its subtree on the worker's
+ * IterativeSolver and stopping once the shared count reaches the limit.
+ * SolveOptions are shared by every task of a call. Each task reports its nodes every CHECK_INTERVAL nodes and then
+ * checks the clock and the token, so the node limit counts the whole search but may be overrun by up to that many
+ * nodes per running task. Once any task runs out of budget the others stop at their next node.
+ * Each call keeps its state in its own tasks, so one instance can be shared between threads.
+ * @author Ben Cullivan
+ */
+public class ParallelSolver implements SolverEngine {
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    /**
+     * the sequential engine each worker thread counts its subtrees with
+     */
+    private final ThreadLocal<IterativeSolver> counters = ThreadLocal.withInitial(IterativeSolver::new);
+
+    /**
+     * Creates a solver that splits the top 3 levels of the search on the common pool
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), 3);
+    }
+
+    /**
+     * @param pool the pool the subtasks run on
+     * @param splitDepth the number of search levels that fork a task per candidate
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth) {
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    @Override
+    public boolean solve(int[][] sudoku, int n) {
+        return solve(sudoku, n, new Limits(SolveOptions.Budget.UNLIMITED));
+    }
+
+    @Override
+    public SolveStatus solve(Board board, SolveOptions options) {
+        Limits limits = new Limits(options.start());
+        if (limits.report(1)) return SolveStatus.BUDGET_EXCEEDED;
+        int[][] sudoku = board.toArray();
+        if (solve(sudoku, board.getN(), limits)) {
+            board.load(sudoku);
+            return SolveStatus.SOLVED;
+        }
+        return limits.exceeded ? SolveStatus.BUDGET_EXCEEDED : SolveStatus.UNSOLVABLE;
+    }
+
+    /**
+     * @param sudoku the sudoku to solve in place
+     * @param n the height and width of the sudoku which is nxn
+     * @param limits the budget shared by the tasks of this call
+     * @return whether the sudoku was solved
+     */
+    private boolean solve(int[][] sudoku, int n, Limits limits) {
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+
+        // copy the sudoku into a flat board and search from the root
+        Board givens = givens(sudoku, layout);
+        if (givens == null) return false;
+        int[] board = new int[n * n];
+        for (int cell = 0; cell < n * n; cell++) board[cell] = givens.getCell(cell);
+        AtomicReference<int[]> solution = new AtomicReference<>();
+        pool.invoke(new BranchTask(board, n, 0, solution, limits));
+
+        // copy the solution back into the input array
+        int[] solved = solution.get();
+        if (solved == null) return false;
+        for (int cell = 0; cell < n * n; cell++) {
+            sudoku[layout.rowOf(cell)][layout.columnOf(cell)] = solved[cell];
+        }
+        return true;
+    }
+
+    /**
+     * Counts the solutions of the sudoku without modifying it, stopping as soon as limit solutions have been found
+     * @param sudoku the sudoku whose solutions are counted
+     * @param n the height and width of the sudoku which is nxn
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions, at most limit
+     */
+    public long countSolutions(int[][] sudoku, int n, long limit) {
+        return countSolutions(sudoku, n, limit, SolveOptions.NONE);
+    }
+
+    /**
+     * Counts the solutions of the sudoku without modifying it, stopping as soon as limit solutions have been found or
+     * the options run out
+     * @param sudoku the sudoku whose solutions are counted
+     * @param n the height and width of the sudoku which is nxn
+     * @param limit the number of solutions after which counting stops
+     * @param options the deadline, node limit and cancellation token of the count
+     * @return the number of solutions, at most limit, or -1 if the options ran out first
+     */
+    public long countSolutions(int[][] sudoku, int n, long limit, SolveOptions options) {
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+
+        Board board = givens(sudoku, layout);
+        if (board == null || limit <= 0) return 0;
+
+        Limits limits = new Limits(options.start());
+        if (limits.report(1)) return -1;
+        AtomicLong count = new AtomicLong();
+        pool.invoke(new CountTask(board, 0, limit, count, limits));
+        if (count.get() < limit && limits.exceeded) return -1;
+        return Math.min(count.get(), limit);
+    }
+
+    /**
+     * @param sudoku the sudoku to check
+     * @param n the height and width of the sudoku which is nxn
+     * @return whether the sudoku has exactly one solution
+     */
+    public boolean hasUniqueSolution(int[][] sudoku, int n) {
+        return countSolutions(sudoku, n, 2) == 1;
+    }
+
+    /**
+     * Copies the starting numbers into a board, rejecting conflicting ones here since the tasks only ever place legal
+     * candidates and BitGrid.load accepts duplicates
+     * @param sudoku the sudoku to copy
+     * @param layout the layout of its size
+     * @return the board, or null if two starting numbers conflict or one is out of range
+     */
+    private static Board givens(int[][] sudoku, SudokuLayout layout) {
+        int n = layout.getN();
+        Board board = new Board(n);
+        BitGrid grid = new BitGrid(n);
+        for (int cell = 0; cell < n * n; cell++) {
+            int num = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+            if (num == 0) continue;
+            if (num < 0 || num > n || (grid.candidatesCell(cell) & (1L << (num - 1))) == 0) return null;
+            grid.addCell(num, cell);
+            board.setCell(cell, num);
+        }
+        return board;
+    }
+
+    /**
+     * @param grid the grid holding the numbers of the board
+     * @param board the flat board
+     * @return the empty cell with the fewest candidates, or -1 if the board is full
+     */
+    private static int selectCell(BitGrid grid, int[] board) {
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int cell = 0; cell < board.length && bestCount > 1; cell++) {
+            if (board[cell] != 0) continue;
+            int count = Long.bitCount(grid.candidatesCell(cell));
+            if (count < bestCount) {
+                best = cell;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * The budget shared by every task of one call and the nodes the tasks have reported against it
+     */
+    private static final class Limits {
+
+        private final SolveOptions.Budget budget;
+        private final AtomicLong nodes = new AtomicLong();
+        private volatile boolean exceeded;
+
+        private Limits(SolveOptions.Budget budget) {
+            this.budget = budget;
+        }
+
+        /**
+         * Adds the nodes a task visited since its last report and checks every limit against the total
+         * @param visited the nodes to add
+         * @return whether the call has to stop
+         */
+        private boolean report(long visited) {
+            if (!exceeded && budget.isExceededNow(nodes.addAndGet(visited))) exceeded = true;
+            return exceeded;
+        }
+
+        /**
+         * @return the budget left to a sequential search that runs as one part of the call
+         */
+        private SolveOptions.Budget remaining() {
+            return budget.remainingAfter(nodes.get());
+        }
+    }
+
+    /**
+     * Searches one subtree of the search, owning its copy of the board
+     */
+    private class BranchTask extends RecursiveAction {
+
+        private final int[] board;
+        private final int n;
+        private final int depth;
+        private final AtomicReference<int[]> solution;
+        private final Limits limits;
+        private BitGrid grid;
+        private long visited;
+
+        private BranchTask(int[] board, int n, int depth, AtomicReference<int[]> solution, Limits limits) {
+            this.board = board;
+            this.n = n;
+            this.depth = depth;
+            this.solution = solution;
+            this.limits = limits;
+        }
+
+        @Override
+        protected void compute() {
+            // another branch may already have solved the sudoku, or the call may be out of budget
+            if (solution.get() != null || limits.report(1)) return;
+            grid = new BitGrid(n);
+            grid.load(board);
+
+            // below the split depth search this subtree sequentially
+            if (depth >= splitDepth) {
+                if (search()) solution.compareAndSet(null, board);
+                limits.report(visited & (SolveOptions.CHECK_INTERVAL - 1));
+                return;
+            }
+
+            int cell = selectCell(grid, board);
+            if (cell < 0) {
+                solution.compareAndSet(null, board);
+                return;
+            }
+
+            // fork one task for every candidate of the most constrained cell
+            long candidates = grid.candidatesCell(cell);
+            BranchTask[] branches = new BranchTask[Long.bitCount(candidates)];
+            for (int i = 0; candidates != 0; i++) {
+                long bit = candidates & -candidates;
+                candidates ^= bit;
+                int[] child = board.clone();
+                child[cell] = Long.numberOfTrailingZeros(bit) + 1;
+                branches[i] = new BranchTask(child, n, depth + 1, solution, limits);
+            }
+            invokeAll(branches);
+        }
+
+        /**
+         * Recursive backtracking on the most constrained cell that gives up once any branch has a solution
+         * @return whether this task completed the board
+         */
+        private boolean search() {
+            if (solution.get() != null || isOutOfBudget()) return false;
+            int cell = selectCell(grid, board);
+            if (cell < 0) return true;
+
+            long candidates = grid.candidatesCell(cell);
+            while (candidates != 0) {
+                long bit = candidates & -candidates;
+                candidates ^= bit;
+                int num = Long.numberOfTrailingZeros(bit) + 1;
+                grid.addCell(num, cell);
+                board[cell] = num;
+                if (search()) return true;
+                grid.removeCell(num, cell);
+                board[cell] = 0;
+            }
+            return false;
+        }
+
+        /**
+         * Counts a node, reporting this task's nodes to the shared budget every CHECK_INTERVAL nodes
+         * @return whether the call has to stop
+         */
+        private boolean isOutOfBudget() {
+            if ((++visited & (SolveOptions.CHECK_INTERVAL - 1)) != 0) return limits.exceeded;
+            return limits.report(SolveOptions.CHECK_INTERVAL);
+        }
+    }
+
+    /**
+     * Counts the solutions of one subtree of the search, owning its copy of the board
+     */
+    private class CountTask extends RecursiveAction {
+
+        private final Board board;
+        private final int depth;
+        private final long limit;
+        private final AtomicLong count;
+        private final Limits limits;
+
+        private CountTask(Board board, int depth, long limit, AtomicLong count, Limits limits) {
+            this.board = board;
+            this.depth = depth;
+            this.limit = limit;
+            this.count = count;
+            this.limits = limits;
+        }
+
+        @Override
+        protected void compute() {
+            // other branches may already have found enough solutions, or the call may be out of budget
+            long remaining = limit - count.get();
+            if (remaining <= 0 || limits.report(1)) return;
+
+            // below the split depth count this subtree sequentially within what is left of the budget
+            if (depth >= splitDepth) {
+                IterativeSolver counter = counters.get();
+                long found = counter.countSolutions(board, remaining, limits.remaining());
+                limits.report(counter.getNodeCount());
+                if (found < 0) limits.exceeded = true;
+                else count.addAndGet(found);
+                return;
+            }
+
+            int n = board.getN();
+            BitGrid grid = new BitGrid(n);
+            grid.load(board);
+            int best = -1;
+            int bestCount = Integer.MAX_VALUE;
+            for (int cell = 0; cell < n * n && bestCount > 1; cell++) {
+                if (board.getCell(cell) != 0) continue;
+                int candidates = Long.bitCount(grid.candidatesCell(cell));
+                if (candidates < bestCount) {
+                    best = cell;
+                    bestCount = candidates;
+                }
+            }
+            if (best < 0) {
+                count.incrementAndGet();
+                return;
+            }
+
+            // fork one task for every candidate of the most constrained cell
+            long candidates = grid.candidatesCell(best);
+            CountTask[] branches = new CountTask[Long.bitCount(candidates)];
+            for (int i = 0; candidates != 0; i++) {
+                long bit = candidates & -candidates;
+                candidates ^= bit;
+                Board child = board.copy();
+                child.setCell(best, Long.numberOfTrailingZeros(bit) + 1);
+                branches[i] = new CountTask(child, depth + 1, limit, count, limits);
+            }
+            invokeAll(branches);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package sudoku;
+
+/**
+ * Solves a sudoku by running the Propagator to a fixpoint up front and again after every guess
+ * Guesses are made on the empty cell with the fewest candidates and are undone through the propagator's trail.
+ * Most puzzles are solved with no guesses at all. The counters of the last solve show which deductions fired.
+ * SolveOptions are checked at every node, so a solve with a budget stops between two propagations.
+ * An instance is not thread safe but can be reused for any number of puzzles without reallocating.
+ * @author Ben Cullivan
+ */
+public class PropagatingSolver implements SolverEngine {
+
+    private Propagator propagator;
+    private long guesses;
+    private long nodes;
+    private SolveOptions.Budget budget = SolveOptions.Budget.UNLIMITED;
+    private boolean exceeded;
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @return whether the sudoku was successfully solved
+     */
+    @Override
+    public boolean solve(int[][] sudoku, int n) {
+        // make sure the propagator matches the board size
+        prepare(n);
+
+        // deduce as much as possible before searching
+        if (!propagator.load(sudoku) || !propagator.propagate() || !search()) return false;
+        propagator.copyTo(sudoku);
+        return true;
+    }
+
+    @Override
+    public boolean solve(Board board) {
+        prepare(board.getN());
+        if (!propagator.load(board) || !propagator.propagate() || !search()) return false;
+        propagator.copyTo(board);
+        return true;
+    }
+
+    @Override
+    public SolveStatus solve(Board board, SolveOptions options) {
+        prepare(board.getN());
+        budget = options.start();
+        try {
+            if (budget.isExceeded(1)) return SolveStatus.BUDGET_EXCEEDED;
+            if (!propagator.load(board) || !propagator.propagate()) return SolveStatus.UNSOLVABLE;
+            if (!search()) return exceeded ? SolveStatus.BUDGET_EXCEEDED : SolveStatus.UNSOLVABLE;
+        } finally {
+            budget = SolveOptions.Budget.UNLIMITED;
+        }
+        propagator.copyTo(board);
+        return SolveStatus.SOLVED;
+    }
+
+    /**
+     * @return the number of guesses the last call to solve made
+     */
+    public long getGuessCount() {
+        return guesses;
+    }
+
+    /**
+     * @return the number of search nodes the last call to solve visited
+     */
+    @Override
+    public long getNodeCount() {
+        return nodes;
+    }
+
+    /**
+     * @param deduction a rule
+     * @return how many times the rule made progress during the last call to solve
+     */
+    public long getDeductionCount(Deduction deduction) {
+        return propagator == null ? 0 : propagator.getCount(deduction);
+    }
+
+    /**
+     * Searches for a completion of a board that another caller has already loaded and propagated
+     * The completion is left in the given propagator, so the caller takes a mark first and undoes to it afterwards.
+     * @param start the propagator holding the board, which is borrowed only for the duration of the call
+     * @return whether the board could be completed
+     */
+    boolean complete(Propagator start) {
+        Propagator own = propagator;
+        propagator = start;
+        guesses = 0;
+        nodes = 0;
+        exceeded = false;
+        try {
+            return search();
+        } finally {
+            propagator = own;
+        }
+    }
+
+    /**
+     * Makes sure the propagator matches the board size and resets the counters
+     * @param n the height and width of the sudoku
+     */
+    private void prepare(int n) {
+        if (propagator == null || propagator.getN() != n) propagator = new Propagator(n);
+        propagator.resetCounts();
+        guesses = 0;
+        nodes = 0;
+        exceeded = false;
+    }
+
+    /**
+     * Guesses a number for the most constrained empty cell and propagates, undoing on failure
+     * @return whether the board could be completed
+     */
+    private boolean search() {
+        nodes++;
+        // every node runs a whole propagation, so reading the clock each time costs nothing by comparison
+        if (budget.isExceededNow(nodes)) {
+            exceeded = true;
+            return false;
+        }
+
+        // find the empty cell with the fewest candidates
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        int cells = propagator.getLayout().getCells();
+        for (int cell = 0; cell < cells && bestCount > 2; cell++) {
+            if (propagator.value(cell) != 0) continue;
+            int count = Long.bitCount(propagator.candidates(cell));
+            if (count < bestCount) {
+                best = cell;
+                bestCount = count;
+            }
+        }
+        if (best < 0) return true;
+
+        // try each candidate, propagating after the guess
+        long candidates = propagator.candidates(best);
+        while (candidates != 0) {
+            long bit = candidates & -candidates;
+            candidates ^= bit;
+            guesses++;
+            int mark = propagator.mark();
+            if (propagator.assign(best, Long.numberOfTrailingZeros(bit) + 1) && propagator.propagate()
+                    && search()) {
+                return true;
+            }
+            propagator.undo(mark);
+            if (exceeded) return false;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,460 @@
+package sudoku;
+
+/**
+ * Keeps a candidate bitmask for every cell and applies logical deductions until nothing more can be deduced
+ * Every change to a candidate mask or value is recorded on a trail, so a search can take a mark before a guess and
+ * undo back to it on backtrack without copying the board.
+ * The rules are applied cheapest first and the fixpoint restarts from the cheapest rule whenever one makes progress.
+ * Counters record how many times each Deduction fired since the last call to resetCounts.
+ * An instance is not thread safe but can be reloaded with any number of puzzles of its size.
+ * @author Ben Cullivan
+ */
+public class Propagator {
+
+    private final int n;
+    private final int cells;
+    private final long fullMask;
+    private final SudokuLayout layout;
+
+    /**
+     * candidates[cell] has bit (num - 1) set for every num that may still go in the cell
+     * values[cell] is the number placed in the cell or 0 if it is empty
+     */
+    private final long[] candidates;
+    private final int[] values;
+
+    /**
+     * the undo trail: trailCell holds the cell whose mask changed, or cell + cells when its value changed,
+     * and trailOld holds the previous mask or value
+     */
+    private final int[] trailCell;
+    private final long[] trailOld;
+    private int trailSize;
+
+    /**
+     * scratch space for the positions of each number within a unit
+     */
+    private final long[] positions;
+
+    private final long[] counts = new long[Deduction.values().length];
+
+    /**
+     * @param n the height and width of the sudoku which is nxn
+     */
+    public Propagator(int n) {
+        layout = SudokuLayout.forSize(n);
+        this.n = n;
+        cells = n * n;
+        fullMask = (1L << n) - 1;
+        candidates = new long[cells];
+        values = new int[cells];
+        // every entry removes at least one candidate or fills a cell, which bounds the trail
+        trailCell = new int[cells * (n + 1)];
+        trailOld = new long[cells * (n + 1)];
+        positions = new long[n];
+    }
+
+    /**
+     * Clears the board and places the starting numbers of a sudoku
+     * The starting numbers cannot be undone.
+     * @param sudoku the sudoku to load, 0 for an empty spot
+     * @return false if the starting numbers contradict each other
+     */
+    public boolean load(int[][] sudoku) {
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+        clear();
+        for (int cell = 0; cell < cells; cell++) {
+            int num = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+            if (num != 0 && !assign(cell, num)) return false;
+        }
+        trailSize = 0;
+        return true;
+    }
+
+    /**
+     * Clears the board and places the starting numbers of a board
+     * The starting numbers cannot be undone.
+     * @param board the board to load, 0 for an empty spot
+     * @return false if the starting numbers contradict each other
+     */
+    public boolean load(Board board) {
+        if (board.getN() != n) throw new IllegalArgumentException("The board must be " + n + "x" + n + ".");
+        clear();
+        for (int cell = 0; cell < cells; cell++) {
+            int num = board.getCell(cell);
+            if (num != 0 && !assign(cell, num)) return false;
+        }
+        trailSize = 0;
+        return true;
+    }
+
+    /**
+     * Places a number in a cell and removes it from the candidates of every peer
+     * @param cell the flat index of the cell
+     * @param num the number to place
+     * @return false if the placement leads to a contradiction
+     */
+    public boolean assign(int cell, int num) {
+        long bit = 1L << (num - 1);
+        if ((candidates[cell] & bit) == 0) return false;
+        setCandidates(cell, bit);
+        setValue(cell, num);
+        for (int peer : layout.peersOf(cell)) {
+            if (!eliminate(peer, bit)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Applies every rule repeatedly until none of them can make progress
+     * @return false if a contradiction was found
+     */
+    public boolean propagate() {
+        while (true) {
+            int progress = nakedSingles();
+            if (progress == 0) progress = hiddenSingles();
+            if (progress == 0) progress = nakedPairs();
+            if (progress == 0) progress = hiddenPairs();
+            if (progress == 0) progress = pointingAndClaiming();
+            if (progress < 0) return false;
+            if (progress == 0) return true;
+        }
+    }
+
+    /**
+     * @return a mark that can later be passed to undo
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Reverts every change made since the mark was taken
+     * @param mark a value previously returned by mark
+     */
+    public void undo(int mark) {
+        while (trailSize > mark) {
+            trailSize--;
+            int cell = trailCell[trailSize];
+            if (cell >= cells) values[cell - cells] = (int) trailOld[trailSize];
+            else candidates[cell] = trailOld[trailSize];
+        }
+    }
+
+    /**
+     * @param cell the flat index of a cell
+     * @return the candidate mask of the cell
+     */
+    public long candidates(int cell) {
+        return candidates[cell];
+    }
+
+    /**
+     * @param cell the flat index of a cell
+     * @return the number in the cell or 0 if it is empty
+     */
+    public int value(int cell) {
+        return values[cell];
+    }
+
+    /**
+     * @return whether every cell has been filled
+     */
+    public boolean isSolved() {
+        for (int cell = 0; cell < cells; cell++) {
+            if (values[cell] == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Copies the placed numbers into a sudoku array
+     * @param sudoku the array to write to
+     */
+    public void copyTo(int[][] sudoku) {
+        for (int cell = 0; cell < cells; cell++) {
+            sudoku[layout.rowOf(cell)][layout.columnOf(cell)] = values[cell];
+        }
+    }
+
+    /**
+     * Copies the placed numbers into a board
+     * @param board the board to write to
+     */
+    public void copyTo(Board board) {
+        for (int cell = 0; cell < cells; cell++) board.setCell(cell, values[cell]);
+    }
+
+    /**
+     * @param deduction a rule
+     * @return how many times the rule made progress since the counters were last reset
+     */
+    public long getCount(Deduction deduction) {
+        return counts[deduction.ordinal()];
+    }
+
+    /**
+     * Sets every rule counter back to 0
+     */
+    public void resetCounts() {
+        for (int i = 0; i < counts.length; i++) counts[i] = 0;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public SudokuLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Empties every cell and makes every number a candidate again
+     */
+    private void clear() {
+        for (int cell = 0; cell < cells; cell++) {
+            candidates[cell] = fullMask;
+            values[cell] = 0;
+        }
+        trailSize = 0;
+    }
+
+    /**
+     * Removes a candidate from a cell
+     * @param cell the flat index of the cell
+     * @param bit the mask bit of the number to remove
+     * @return false if the cell is left without candidates
+     */
+    private boolean eliminate(int cell, long bit) {
+        long mask = candidates[cell];
+        if ((mask & bit) == 0) return true;
+        setCandidates(cell, mask & ~bit);
+        return mask != bit;
+    }
+
+    private void setCandidates(int cell, long mask) {
+        trailCell[trailSize] = cell;
+        trailOld[trailSize++] = candidates[cell];
+        candidates[cell] = mask;
+    }
+
+    private void setValue(int cell, int num) {
+        trailCell[trailSize] = cell + cells;
+        trailOld[trailSize++] = values[cell];
+        values[cell] = num;
+    }
+
+    /**
+     * Fills every empty cell that has a single candidate
+     * @return -1 on a contradiction, 1 if a cell was filled, 0 otherwise
+     */
+    private int nakedSingles() {
+        int progress = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            long mask = candidates[cell];
+            if (values[cell] == 0 && Long.bitCount(mask) == 1) {
+                if (!assign(cell, Long.numberOfTrailingZeros(mask) + 1)) return -1;
+                counts[Deduction.NAKED_SINGLE.ordinal()]++;
+                progress = 1;
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Fills every cell that is the only place left for a number in one of its units
+     * @return -1 on a contradiction, 1 if a cell was filled, 0 otherwise
+     */
+    private int hiddenSingles() {
+        int progress = 0;
+        for (int u = 0; u < 3 * n; u++) {
+            int[] unit = layout.unit(u);
+
+            // find the numbers that are possible in exactly one empty cell of the unit
+            long placed = 0;
+            long once = 0;
+            long more = 0;
+            for (int cell : unit) {
+                long mask = candidates[cell];
+                if (values[cell] != 0) {
+                    placed |= mask;
+                } else {
+                    more |= once & mask;
+                    once |= mask;
+                }
+            }
+            if ((once | placed) != fullMask) return -1;
+
+            long singles = once & ~more & ~placed;
+            while (singles != 0) {
+                long bit = singles & -singles;
+                singles ^= bit;
+                int target = -1;
+                for (int cell : unit) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) target = cell;
+                }
+                if (target < 0 || !assign(target, Long.numberOfTrailingZeros(bit) + 1)) return -1;
+                counts[Deduction.HIDDEN_SINGLE.ordinal()]++;
+                progress = 1;
+            }
+        }
+        return progress;
+    }
+
+    /**
+     * Looks for two cells of a unit with the same two candidates and removes those from the rest of the unit
+     * @return -1 on a contradiction, 1 if a candidate was removed, 0 otherwise
+     */
+    private int nakedPairs() {
+        for (int u = 0; u < 3 * n; u++) {
+            int[] unit = layout.unit(u);
+            for (int i = 0; i < n; i++) {
+                long mask = candidates[unit[i]];
+                if (values[unit[i]] != 0 || Long.bitCount(mask) != 2) continue;
+                for (int j = i + 1; j < n; j++) {
+                    if (values[unit[j]] != 0 || candidates[unit[j]] != mask) continue;
+
+                    // remove both numbers from every other empty cell in the unit
+                    boolean changed = false;
+                    for (int k = 0; k < n; k++) {
+                        int cell = unit[k];
+                        if (k == i || k == j || values[cell] != 0 || (candidates[cell] & mask) == 0) continue;
+                        long remaining = candidates[cell] & ~mask;
+                        if (remaining == 0) return -1;
+                        setCandidates(cell, remaining);
+                        changed = true;
+                    }
+                    if (changed) {
+                        counts[Deduction.NAKED_PAIR.ordinal()]++;
+                        return 1;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Looks for two numbers that are only possible in the same two cells of a unit and removes every other
+     * candidate from those cells
+     * @return 1 if a candidate was removed, 0 otherwise
+     */
+    private int hiddenPairs() {
+        for (int u = 0; u < 3 * n; u++) {
+            int[] unit = layout.unit(u);
+            fillPositions(unit);
+            for (int a = 0; a < n; a++) {
+                if (Long.bitCount(positions[a]) != 2) continue;
+                for (int b = a + 1; b < n; b++) {
+                    if (positions[b] != positions[a]) continue;
+
+                    // restrict both cells to the pair
+                    long pair = (1L << a) | (1L << b);
+                    boolean changed = false;
+                    long where = positions[a];
+                    while (where != 0) {
+                        int cell = unit[Long.numberOfTrailingZeros(where)];
+                        where &= where - 1;
+                        if ((candidates[cell] & ~pair) != 0) {
+                            setCandidates(cell, candidates[cell] & pair);
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        counts[Deduction.HIDDEN_PAIR.ordinal()]++;
+                        return 1;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Removes a number from the rest of a line when it is confined to one section of the line (pointing),
+     * or from the rest of a section when it is confined to one line of the section (claiming)
+     * @return -1 on a contradiction, 1 if a candidate was removed, 0 otherwise
+     */
+    private int pointingAndClaiming() {
+        // visit the sections first so that pointing is tried before claiming
+        for (int i = 0; i < 3 * n; i++) {
+            int u = (i + 2 * n) % (3 * n);
+            int[] unit = layout.unit(u);
+            boolean section = u >= 2 * n;
+            for (long bit = 1; bit <= fullMask; bit <<= 1) {
+                // record which rows, columns, or sections hold this number's candidates
+                long rows = 0;
+                long columns = 0;
+                long sections = 0;
+                for (int cell : unit) {
+                    if (values[cell] == 0 && (candidates[cell] & bit) != 0) {
+                        rows |= 1L << layout.rowOf(cell);
+                        columns |= 1L << layout.columnOf(cell);
+                        sections |= 1L << layout.sectionOf(cell);
+                    }
+                }
+                if (Long.bitCount(sections) == 0) continue;
+
+                int result;
+                if (section) {
+                    if (Long.bitCount(rows) == 1) {
+                        result = eliminateOutside(Long.numberOfTrailingZeros(rows), u - 2 * n, bit);
+                    } else if (Long.bitCount(columns) == 1) {
+                        result = eliminateOutside(n + Long.numberOfTrailingZeros(columns), u - 2 * n, bit);
+                    } else continue;
+                    if (result != 0) {
+                        if (result > 0) counts[Deduction.POINTING.ordinal()]++;
+                        return result;
+                    }
+                } else if (Long.bitCount(sections) == 1) {
+                    result = eliminateOutside(2 * n + Long.numberOfTrailingZeros(sections), u, bit);
+                    if (result != 0) {
+                        if (result > 0) counts[Deduction.CLAIMING.ordinal()]++;
+                        return result;
+                    }
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Removes a number from every empty cell of a unit except the cells it shares with another unit
+     * @param target the unit to remove the number from
+     * @param keep the section number when target is a row or column, or the unit number of the row or column
+     *             when target is a section
+     * @param bit the mask bit of the number
+     * @return -1 on a contradiction, 1 if a candidate was removed, 0 otherwise
+     */
+    private int eliminateOutside(int target, int keep, long bit) {
+        boolean keepSection = target < 2 * n;
+        int progress = 0;
+        for (int cell : layout.unit(target)) {
+            int owner = keepSection ? layout.sectionOf(cell)
+                    : (keep < n ? layout.rowOf(cell) : layout.columnOf(cell) + n);
+            if (owner == keep || values[cell] != 0 || (candidates[cell] & bit) == 0) continue;
+            if (!eliminate(cell, bit)) return -1;
+            progress = 1;
+        }
+        return progress;
+    }
+
+    /**
+     * Records for every number the positions within the unit of the empty cells where it is still possible
+     * @param unit the cells of the unit
+     */
+    private void fillPositions(int[] unit) {
+        for (int d = 0; d < n; d++) positions[d] = 0;
+        for (int i = 0; i < n; i++) {
+            int cell = unit[i];
+            if (values[cell] != 0) continue;
+            long mask = candidates[cell];
+            while (mask != 0) {
+                positions[Long.numberOfTrailingZeros(mask)] |= 1L << i;
+                mask &= mask - 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package sudoku;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Generates random sudokus with a unique solution and grades their difficulty
+ * A full grid is made by filling the diagonal sections at random, solving the rest and shuffling the result with
+ * a random relabeling and random band, stack, row and column swaps. Clues are then removed in random order, keeping a
+ * removal only if the puzzle stays unique, which is checked by trying to complete the puzzle with every other number
+ * in the emptied cell. Finally the last removed clues are put back until the puzzle is no harder than the target.
+ * The same seed always gives the same puzzle.
+ * An instance is not thread safe but can be reused for any number of puzzles without reallocating.
+ * Usage: java PuzzleGenerator output count [difficulty] [n] [seed]
+ * @author Ben Cullivan
+ */
+public class PuzzleGenerator {
+
+    /**
+     * the number of full grids tried before settling for the hardest puzzle found
+     */
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final SplittableRandom random;
+    private final IterativeSolver solver = new IterativeSolver();
+    private final PropagatingSolver grader = new PropagatingSolver();
+    private final DancingLinksSolver exact = new DancingLinksSolver();
+
+    /**
+     * per-size scratch state
+     */
+    private int n;
+    private Board scratch;
+    private BitGrid checker;
+    private int[] order;
+    private int[] removed;
+    private int[] removedNums;
+    private int[] labels;
+    private int[] rows;
+    private int[] columns;
+
+    /**
+     * Creates a generator with a random seed
+     */
+    public PuzzleGenerator() {
+        this(new SplittableRandom().nextLong());
+    }
+
+    /**
+     * @param seed the seed of the puzzles generated without an explicit seed
+     */
+    public PuzzleGenerator(long seed) {
+        random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Generates a puzzle of the target difficulty, or the hardest puzzle found if none was found in time
+     * @param n the height and width of the sudoku which is nxn
+     * @param target the difficulty to aim for, or null for the fewest clues regardless of difficulty
+     * @return a new puzzle with a unique solution
+     */
+    public Board generate(int n, Difficulty target) {
+        return generate(n, target, random.nextLong());
+    }
+
+    /**
+     * Generates the puzzle of the given seed
+     * @param n the height and width of the sudoku which is nxn
+     * @param target the difficulty to aim for, or null for the fewest clues regardless of difficulty
+     * @param seed the seed the puzzle is derived from
+     * @return a new puzzle with a unique solution
+     */
+    public Board generate(int n, Difficulty target, long seed) {
+        prepare(n);
+        SplittableRandom random = new SplittableRandom(seed);
+        Board best = null;
+        Difficulty bestGrade = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Board puzzle = fullGrid(random);
+            Difficulty grade = removeClues(puzzle, target, random);
+            if (target == null || grade == target) return puzzle;
+            if (best == null || grade.compareTo(bestGrade) > 0) {
+                best = puzzle;
+                bestGrade = grade;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Generates many puzzles in parallel on the common pool
+     * Puzzle i is derived from the seed and i alone, so the list does not depend on how the work was scheduled.
+     * @param n the height and width of each sudoku which is nxn
+     * @param target the difficulty to aim for, or null for the fewest clues regardless of difficulty
+     * @param count the number of puzzles
+     * @param seed the seed the puzzles are derived from
+     * @return the puzzles in seed order
+     */
+    public static List<Board> generateAll(int n, Difficulty target, int count, long seed) {
+        ThreadLocal<PuzzleGenerator> generators = ThreadLocal.withInitial(() -> new PuzzleGenerator(seed));
+        SplittableRandom seeds = new SplittableRandom(seed);
+        long[] puzzleSeeds = new long[count];
+        for (int i = 0; i < count; i++) puzzleSeeds[i] = seeds.nextLong();
+        return IntStream.range(0, count).parallel()
+                .mapToObj(i -> generators.get().generate(n, target, puzzleSeeds[i]))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Grades a puzzle by how much help the PropagatingSolver needs to solve it
+     * @param puzzle the puzzle to grade, which is not modified
+     * @return the difficulty, or null if the puzzle cannot be solved
+     */
+    public Difficulty grade(Board puzzle) {
+        prepare(puzzle.getN());
+        scratch.copyFrom(puzzle);
+        if (!grader.solve(scratch)) return null;
+        long guesses = grader.getGuessCount();
+        if (guesses > n) return Difficulty.EXPERT;
+        if (guesses > 0) return Difficulty.HARD;
+        for (Deduction deduction : Deduction.values()) {
+            if (deduction == Deduction.NAKED_SINGLE || deduction == Deduction.HIDDEN_SINGLE) continue;
+            if (grader.getDeductionCount(deduction) > 0) return Difficulty.MEDIUM;
+        }
+        return Difficulty.EASY;
+    }
+
+    /**
+     * Makes sure the scratch state matches the board size
+     * @param n the height and width of the sudoku
+     */
+    private void prepare(int n) {
+        if (scratch != null && this.n == n) return;
+        SudokuLayout.forSize(n);
+        this.n = n;
+        scratch = new Board(n);
+        checker = new BitGrid(n);
+        order = new int[n * n];
+        removed = new int[n * n];
+        removedNums = new int[n * n];
+        labels = new int[n + 1];
+        rows = new int[n];
+        columns = new int[n];
+    }
+
+    /**
+     * @param random the source of randomness
+     * @return a new random complete and valid grid
+     */
+    private Board fullGrid(SplittableRandom random) {
+        int root = SudokuLayout.forSize(n).getRoot();
+
+        // the diagonal sections share no row, column or section, so they are filled independently and the rest is
+        // solved, which only fails for some 4x4 fillings
+        Board grid = new Board(n);
+        do {
+            for (int section = 0; section < root; section++) {
+                shuffle(labels, 1, random);
+                for (int i = 0; i < n; i++) {
+                    grid.set(section * root + i / root, section * root + i % root, labels[i + 1]);
+                }
+            }
+        } while (!solver.solve(grid));
+
+        // relabel the numbers and shuffle the bands, stacks, and the rows and columns inside them
+        shuffle(labels, 1, random);
+        shuffleLines(rows, root, random);
+        shuffleLines(columns, root, random);
+        boolean transpose = random.nextBoolean();
+        Board shuffled = new Board(n);
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                int num = labels[grid.get(rows[row], columns[column])];
+                if (transpose) shuffled.set(column, row, num);
+                else shuffled.set(row, column, num);
+            }
+        }
+        return shuffled;
+    }
+
+    /**
+     * Removes clues from a full grid in random order while the puzzle stays unique, then puts the last removed clues
+     * back until the puzzle is no harder than the target
+     * Grading only the few puzzles on the way back is much cheaper than grading after every removal.
+     * @param puzzle the full grid, which becomes the puzzle
+     * @param target the hardest difficulty allowed, or null for any
+     * @param random the source of randomness
+     * @return the difficulty of the puzzle
+     */
+    private Difficulty removeClues(Board puzzle, Difficulty target, SplittableRandom random) {
+        shuffle(order, 0, random);
+        int removedCount = 0;
+        for (int cell : order) {
+            int num = puzzle.getCell(cell);
+            puzzle.setCell(cell, 0);
+            if (isUnique(puzzle, cell, num)) {
+                removed[removedCount] = cell;
+                removedNums[removedCount++] = num;
+            } else {
+                puzzle.setCell(cell, num);
+            }
+        }
+
+        // extra clues never make a puzzle harder
+        Difficulty grade = grade(puzzle);
+        while (target != null && grade.compareTo(target) > 0) {
+            removedCount--;
+            puzzle.setCell(removed[removedCount], removedNums[removedCount]);
+            grade = grade(puzzle);
+        }
+        return grade;
+    }
+
+    /**
+     * Checks that a puzzle which was unique before a clue was removed is still unique
+     * Every other solution would have another number in the emptied cell, so the puzzle is unique exactly when no
+     * other number there can be completed. Those searches usually fail within a few nodes, which is far cheaper than
+     * counting solutions of the whole puzzle. Plain backtracking is fastest up to 9x9, while larger boards need the
+     * exact cover search to avoid thrashing on sparse puzzles.
+     * @param puzzle the puzzle with the cell emptied
+     * @param cell the emptied cell
+     * @param num the number the cell held in the solution
+     * @return whether the puzzle still has exactly one solution
+     */
+    private boolean isUnique(Board puzzle, int cell, int num) {
+        checker.load(puzzle);
+        long others = checker.candidatesCell(cell) & ~(1L << (num - 1));
+        while (others != 0) {
+            long bit = others & -others;
+            others ^= bit;
+            int other = Long.numberOfTrailingZeros(bit) + 1;
+            scratch.copyFrom(puzzle);
+            scratch.setCell(cell, other);
+            if (n > 9 ? exact.solve(scratch) : solver.solve(scratch)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Fills an array with the identity from the first index on and shuffles that part
+     * @param array the array to shuffle
+     * @param first the first index to fill and shuffle
+     * @param random the source of randomness
+     */
+    private static void shuffle(int[] array, int first, SplittableRandom random) {
+        for (int i = first; i < array.length; i++) array[i] = i;
+        for (int i = array.length - 1; i > first; i--) {
+            int j = first + random.nextInt(i - first + 1);
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    /**
+     * Fills lines with a random order of rows or columns that shuffles the blocks and the lines inside each block
+     * @param lines the array to fill
+     * @param root the number of lines in a block
+     * @param random the source of randomness
+     */
+    private static void shuffleLines(int[] lines, int root, SplittableRandom random) {
+        int[] blocks = new int[root];
+        int[] inner = new int[root];
+        shuffle(blocks, 0, random);
+        for (int block = 0; block < root; block++) {
+            shuffle(inner, 0, random);
+            for (int i = 0; i < root; i++) lines[block * root + i] = blocks[block] * root + inner[i];
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java PuzzleGenerator output count [difficulty] [n] [seed]");
+            return;
+        }
+        int count = Integer.parseInt(args[1]);
+        Difficulty target = args.length > 2 ? Difficulty.valueOf(args[2].toUpperCase()) : null;
+        int n = args.length > 3 ? Integer.parseInt(args[3]) : 9;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        // generate the puzzles in parallel and write them in seed order
+        long start = System.nanoTime();
+        List<Board> puzzles = generateAll(n, target, count, seed);
+        long nanos = System.nanoTime() - start;
+        try (PuzzleWriter writer = PuzzleWriter.create(Path.of(args[0]), n)) {
+            for (Board puzzle : puzzles) writer.write(puzzle);
+        }
+        System.out.printf("Generated %d puzzles in %.1f ms (%.0f puzzles/sec)%n", count, nanos / 1e6,
+                count * 1e9 / nanos);
+    }
+}
@@ -0,0 +1,162 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams sudokus from a file with one puzzle per line
+ * Each line holds the n*n cells in row-major order. A blank is written as '0' or '.', the numbers 1-9 as digits and
+ * the numbers from 10 up as letters starting at 'A' (so a 16x16 puzzle uses 1-9 and A-G). Anything after the last
+ * cell of a line is ignored and empty lines are skipped. There are no symbols left for 36x36, so the text format stops
+ * at 25x25.
+ * The file is read through a fixed size buffer and decoded straight into a board or array supplied by the caller,
+ * so any size of file is processed in constant memory.
+ * @author Ben Cullivan
+ */
+public class PuzzleReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * the largest board size the text format can represent
+     */
+    static final int MAX_SIZE = 25;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int n;
+    private final Board line;
+    private long lineNumber;
+    private boolean endOfInput;
+
+    /**
+     * @param channel the channel to read from, closed when this reader is closed
+     * @param n the height and width of each sudoku which is nxn
+     */
+    public PuzzleReader(ReadableByteChannel channel, int n) {
+        checkSize(n);
+        this.channel = channel;
+        this.n = n;
+        line = new Board(n);
+        buffer.flip();
+    }
+
+    /**
+     * @param path the file to read
+     * @param n the height and width of each sudoku which is nxn
+     * @return a reader over the file
+     */
+    public static PuzzleReader open(Path path, int n) throws IOException {
+        return new PuzzleReader(FileChannel.open(path, StandardOpenOption.READ), n);
+    }
+
+    /**
+     * Decodes the next puzzle into the given array
+     * @param sudoku an nxn array that is overwritten with the next puzzle
+     * @return false if there are no more puzzles
+     * @throws IOException if the file cannot be read or a line is not a valid puzzle
+     */
+    public boolean next(int[][] sudoku) throws IOException {
+        if (!next(line)) return false;
+        line.copyTo(sudoku);
+        return true;
+    }
+
+    /**
+     * Decodes the next puzzle into the given board
+     * @param board an nxn board that is overwritten with the next puzzle
+     * @return false if there are no more puzzles
+     * @throws IOException if the file cannot be read or a line is not a valid puzzle
+     */
+    public boolean next(Board board) throws IOException {
+        if (board.getN() != n) throw new IllegalArgumentException("The board must be " + n + "x" + n + ".");
+        int cells = n * n;
+        int filled = 0;
+        while (true) {
+            // refill the buffer when it has been consumed
+            if (!buffer.hasRemaining()) {
+                if (endOfInput || !fill()) {
+                    if (filled == 0) return false;
+                    lineNumber++;
+                    if (filled < cells) throw shortLine(filled);
+                    return true;
+                }
+            }
+
+            byte b = buffer.get();
+            if (b == '\n') {
+                lineNumber++;
+                if (filled == 0) continue;
+                if (filled < cells) throw shortLine(filled);
+                return true;
+            }
+            if (b == '\r' || filled == cells) continue;
+
+            int num = decode(b);
+            if (num < 0 || num > n) {
+                throw new IOException("Line " + (lineNumber + 1) + " has an invalid cell '" + (char) b + "'.");
+            }
+            board.setCell(filled, num);
+            filled++;
+        }
+    }
+
+    /**
+     * @return the number of lines that have been read
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * @param b a character of the text format
+     * @return the number it represents, 0 for a blank or -1 if it is not a cell character
+     */
+    static int decode(byte b) {
+        if (b == '.' || b == '0') return 0;
+        if (b >= '1' && b <= '9') return b - '0';
+        if (b >= 'A' && b <= 'Z') return b - 'A' + 10;
+        if (b >= 'a' && b <= 'z') return b - 'a' + 10;
+        return -1;
+    }
+
+    /**
+     * @param n the height and width of a sudoku
+     * @throws IllegalArgumentException if the text format cannot hold a sudoku of that size
+     */
+    static void checkSize(int n) {
+        SudokuLayout.forSize(n);
+        if (n > MAX_SIZE) throw new IllegalArgumentException("The text format only supports sizes up to 25x25.");
+    }
+
+    /**
+     * Reads the next block of the channel into the buffer
+     * @return false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read = 0;
+        while (read == 0) read = channel.read(buffer);
+        buffer.flip();
+        if (read < 0) endOfInput = true;
+        return read > 0;
+    }
+
+    private IOException shortLine(int filled) {
+        return new IOException("Line " + lineNumber + " has " + filled + " cells instead of " + n * n + ".");
+    }
+}
@@ -0,0 +1,101 @@
+package sudoku;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams sudokus to a file with one puzzle per line, in the format read by PuzzleReader
+ * Blanks are written as '.', so a solved sudoku never contains one.
+ * Lines are encoded into a fixed size buffer that is written out whenever it fills up.
+ * @author Ben Cullivan
+ */
+public class PuzzleWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private final int n;
+
+    /**
+     * @param channel the channel to write to, closed when this writer is closed
+     * @param n the height and width of each sudoku which is nxn
+     */
+    public PuzzleWriter(WritableByteChannel channel, int n) {
+        PuzzleReader.checkSize(n);
+        this.channel = channel;
+        this.n = n;
+    }
+
+    /**
+     * @param path the file to create or replace
+     * @param n the height and width of each sudoku which is nxn
+     * @return a writer to the file
+     */
+    public static PuzzleWriter create(Path path, int n) throws IOException {
+        return new PuzzleWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), n);
+    }
+
+    /**
+     * Appends a sudoku as one line
+     * @param sudoku the nxn sudoku to write
+     */
+    public void write(int[][] sudoku) throws IOException {
+        if (buffer.remaining() < n * n + 1) flush();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                buffer.put(encode(sudoku[i][j]));
+            }
+        }
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Appends a board as one line
+     * @param board the nxn board to write
+     */
+    public void write(Board board) throws IOException {
+        if (board.getN() != n) throw new IllegalArgumentException("The board must be " + n + "x" + n + ".");
+        if (buffer.remaining() < n * n + 1) flush();
+        for (int cell = 0; cell < n * n; cell++) {
+            buffer.put(encode(board.getCell(cell)));
+        }
+        buffer.put((byte) '\n');
+    }
+
+    /**
+     * Writes out everything that has been buffered
+     */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * @param num a number of the sudoku or 0 for a blank
+     * @return the character that represents it
+     */
+    static byte encode(int num) {
+        if (num == 0) return '.';
+        if (num <= 9) return (byte) ('0' + num);
+        return (byte) ('A' + num - 10);
+    }
+}
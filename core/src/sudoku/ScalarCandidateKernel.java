@@ -0,0 +1,46 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * The plain Java CandidateKernel, one cell at a time
+ * Every number on the board is first added to the masks of its row, column and section, and each empty cell then
+ * takes the numbers missing from all three with two ORs and a bit count. A blank is treated as bit 63, which no
+ * number uses, so neither pass branches on whether a cell is filled. It is the fallback wherever the vector kernel
+ * cannot run.
+ * @author Ben Cullivan
+ */
+public final class ScalarCandidateKernel implements CandidateKernel {
+
+    private long[] used = new long[0];
+
+    @Override
+    public int compute(byte[] cells, int offset, int n, long[] candidates) {
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        if (used.length != 3 * n) used = new long[3 * n];
+        else Arrays.fill(used, 0);
+
+        // collect the numbers used in every row, column and section, 1L << -1 being bit 63 for a blank
+        int count = n * n;
+        for (int cell = 0; cell < count; cell++) {
+            long bit = 1L << (cells[offset + cell] - 1);
+            used[layout.rowOf(cell)] |= bit;
+            used[n + layout.columnOf(cell)] |= bit;
+            used[2 * n + layout.sectionOf(cell)] |= bit;
+        }
+
+        // every empty cell gets the numbers none of its units use, and the most constrained cell is the smallest key
+        // count << 32 | cell, with filled cells keyed Long.MAX_VALUE
+        long full = (1L << n) - 1;
+        long best = Long.MAX_VALUE;
+        for (int cell = 0; cell < count; cell++) {
+            long empty = (1L << (cells[offset + cell] - 1)) >> 63;
+            long mask = empty & full & ~(used[layout.rowOf(cell)] | used[n + layout.columnOf(cell)]
+                    | used[2 * n + layout.sectionOf(cell)]);
+            candidates[cell] = mask;
+            long key = ((long) Long.bitCount(mask) << 32 | cell) | ~empty >>> 1;
+            best = Math.min(best, key);
+        }
+        return best == Long.MAX_VALUE ? -1 : (int) best;
+    }
+}
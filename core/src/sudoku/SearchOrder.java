@@ -0,0 +1,18 @@
+package sudoku;
+
+/**
+ * The order in which a backtracking search picks the next empty cell to fill
+ * @author Ben Cullivan
+ */
+public enum SearchOrder {
+
+    /**
+     * fill the empty cells from left to right and top to bottom, the order used by SudokuSolver.solve
+     */
+    ROW_MAJOR,
+
+    /**
+     * always branch on the empty cell with the fewest legal candidates (minimum remaining values)
+     */
+    MRV
+}
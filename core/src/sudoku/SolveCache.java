@@ -0,0 +1,111 @@
+package sudoku;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded least recently used map from canonical puzzles to their canonical solutions
+ * Puzzles that have no solution are cached too, so repeated bad input is rejected without a search. The cache is
+ * thread safe and meant to be shared by the CachingSolvers of every thread.
+ * @author Ben Cullivan
+ */
+public class SolveCache {
+
+    /**
+     * the entry of a puzzle that cannot be solved
+     */
+    static final byte[] UNSOLVABLE = new byte[0];
+
+    private final int capacity;
+    private final Map<String, byte[]> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity the number of puzzles kept before the least recently used one is evicted
+     */
+    public SolveCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("The capacity must be positive.");
+        this.capacity = capacity;
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+                if (size() <= SolveCache.this.capacity) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param key the canonical form of a puzzle
+     * @return the canonical solution, UNSOLVABLE, or null if the puzzle is not cached
+     */
+    byte[] get(String key) {
+        byte[] solution;
+        synchronized (entries) {
+            solution = entries.get(key);
+        }
+        if (solution == null) misses.increment();
+        else hits.increment();
+        return solution;
+    }
+
+    /**
+     * @param key the canonical form of a puzzle
+     * @param solution the canonical solution, or UNSOLVABLE
+     */
+    void put(String key, byte[] solution) {
+        synchronized (entries) {
+            entries.put(key, solution);
+        }
+    }
+
+    /**
+     * Removes every puzzle, leaving the counters untouched
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that were hits, 0 before the first lookup
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d puzzles cached, %d hits, %d misses (%.1f%% hit rate), %d evictions", size(),
+                capacity, getHits(), getMisses(), getHitRate() * 100, getEvictions());
+    }
+}
@@ -0,0 +1,38 @@
+package sudoku;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event for one search, so pathological puzzles show up in production recordings
+ * Disabled events cost a few instructions, and the event can be filtered with a threshold like any JDK event:
+ * java -XX:StartFlightRecording:sudoku.Solve#threshold=10ms ...
+ * @author Ben Cullivan
+ */
+@Name("sudoku.Solve")
+@Label("Sudoku Solve")
+@Category("Sudoku")
+@Description("One search of a sudoku solver")
+class SolveEvent extends Event {
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Size")
+    int n;
+
+    @Label("Solved")
+    boolean solved;
+
+    @Label("Nodes")
+    long nodes;
+
+    @Label("Backtracks")
+    long backtracks;
+
+    @Label("Max Depth")
+    int maxDepth;
+}
@@ -0,0 +1,45 @@
+package sudoku;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Solves every puzzle of a text file and writes the solutions to another file, one per line in the same order
+ * Puzzles that cannot be solved are written back unchanged, so their blanks show up as '.'.
+ * Usage: java SolveFile input output [n]
+ * @author Ben Cullivan
+ */
+public class SolveFile {
+
+    /**
+     * Streams the puzzles of a file through an engine
+     * @param input the file to read, in the PuzzleReader format
+     * @param output the file to write the solutions to
+     * @param n the height and width of each sudoku which is nxn
+     * @param engine the algorithm used to solve the puzzles
+     * @return the number of puzzles solved and the throughput
+     */
+    public static BatchResult solveFile(Path input, Path output, int n, SolverEngine engine) throws IOException {
+        Board sudoku = new Board(n);
+        long puzzles = 0;
+        long solved = 0;
+        long start = System.nanoTime();
+        try (PuzzleReader reader = PuzzleReader.open(input, n); PuzzleWriter writer = PuzzleWriter.create(output, n)) {
+            while (reader.next(sudoku)) {
+                puzzles++;
+                if (engine.solve(sudoku)) solved++;
+                writer.write(sudoku);
+            }
+        }
+        return new BatchResult(null, puzzles, solved, System.nanoTime() - start);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: java SolveFile input output [n]");
+            return;
+        }
+        int n = args.length > 2 ? Integer.parseInt(args[2]) : 9;
+        System.out.println(solveFile(Path.of(args[0]), Path.of(args[1]), n, new DancingLinksSolver()));
+    }
+}
@@ -0,0 +1,149 @@
+package sudoku;
+
+import java.time.Duration;
+
+/**
+ * The limits a solve gives up at: a deadline, a maximum number of search nodes and a cancellation token
+ * A solve that hits any of them stops with SolveStatus.BUDGET_EXCEEDED and leaves the board unchanged, which bounds
+ * the time a hostile or nearly empty board can take. Options are immutable, so one instance can be shared by every
+ * thread. The node limit is checked at every node, the clock and the token only every CHECK_INTERVAL nodes.
+ * @author Ben Cullivan
+ */
+public final class SolveOptions {
+
+    /**
+     * no limits at all
+     */
+    public static final SolveOptions NONE = new SolveOptions(Long.MAX_VALUE, false, 0, false, 0, null);
+
+    /**
+     * the number of nodes between reads of the clock and the token
+     */
+    static final int CHECK_INTERVAL = 1024;
+
+    private final long maxNodes;
+    private final boolean hasTimeout;
+    private final long timeoutNanos;
+    private final boolean hasDeadline;
+    private final long deadline;
+    private final CancellationToken token;
+
+    private SolveOptions(long maxNodes, boolean hasTimeout, long timeoutNanos, boolean hasDeadline, long deadline,
+                         CancellationToken token) {
+        this.maxNodes = maxNodes;
+        this.hasTimeout = hasTimeout;
+        this.timeoutNanos = timeoutNanos;
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+        this.token = token;
+    }
+
+    /**
+     * @param maxNodes the number of search nodes a solve may visit
+     * @return these options with the node limit
+     */
+    public SolveOptions withMaxNodes(long maxNodes) {
+        if (maxNodes <= 0) throw new IllegalArgumentException("The node limit must be positive.");
+        return new SolveOptions(maxNodes, hasTimeout, timeoutNanos, hasDeadline, deadline, token);
+    }
+
+    /**
+     * @param timeout the time each solve may take, counted from its own start
+     * @return these options with the timeout
+     */
+    public SolveOptions withTimeout(Duration timeout) {
+        if (timeout.isNegative()) throw new IllegalArgumentException("The timeout cannot be negative.");
+        return new SolveOptions(maxNodes, true, timeout.toNanos(), hasDeadline, deadline, token);
+    }
+
+    /**
+     * @param deadline the System.nanoTime after which no solve may continue, shared by every solve of a batch
+     * @return these options with the deadline
+     */
+    public SolveOptions withDeadline(long deadline) {
+        return new SolveOptions(maxNodes, hasTimeout, timeoutNanos, true, deadline, token);
+    }
+
+    /**
+     * @param token the token that stops the solve when it is cancelled
+     * @return these options with the token
+     */
+    public SolveOptions withCancellation(CancellationToken token) {
+        return new SolveOptions(maxNodes, hasTimeout, timeoutNanos, hasDeadline, deadline, token);
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public CancellationToken getToken() {
+        return token;
+    }
+
+    /**
+     * @return the limits of one solve starting now
+     */
+    Budget start() {
+        if (this == NONE) return Budget.UNLIMITED;
+        boolean limited = hasDeadline || hasTimeout;
+        long end = deadline;
+        if (hasTimeout) {
+            long timeoutEnd = System.nanoTime() + timeoutNanos;
+            end = hasDeadline && deadline - timeoutEnd < 0 ? deadline : timeoutEnd;
+        }
+        return new Budget(maxNodes, limited, end, token);
+    }
+
+    /**
+     * The limits of one running solve, with the timeout turned into an absolute deadline
+     */
+    static final class Budget {
+
+        static final Budget UNLIMITED = new Budget(Long.MAX_VALUE, false, 0, null);
+
+        private final long maxNodes;
+        private final boolean hasDeadline;
+        private final long deadline;
+        private final CancellationToken token;
+
+        private Budget(long maxNodes, boolean hasDeadline, long deadline, CancellationToken token) {
+            this.maxNodes = maxNodes;
+            this.hasDeadline = hasDeadline;
+            this.deadline = deadline;
+            this.token = token;
+        }
+
+        /**
+         * Called once per search node, so it only reads the clock and the token on the first node and every
+         * CHECK_INTERVAL nodes after it
+         * @param nodes the number of nodes visited so far, including the current one
+         * @return whether the solve has to stop
+         */
+        boolean isExceeded(long nodes) {
+            if (nodes > maxNodes) return true;
+            if ((nodes & (CHECK_INTERVAL - 1)) != 1) return false;
+            return isExpired();
+        }
+
+        /**
+         * Checks every limit at every call, for searches whose nodes are too expensive to count on the interval
+         * @param nodes the number of nodes visited so far, including the current one
+         * @return whether the solve has to stop
+         */
+        boolean isExceededNow(long nodes) {
+            return nodes > maxNodes || isExpired();
+        }
+
+        /**
+         * @param nodes the nodes already spent by other parts of a search that shares this budget
+         * @return this budget with only the remaining nodes, for one more part of the search
+         */
+        Budget remainingAfter(long nodes) {
+            return new Budget(Math.max(maxNodes - nodes, 0), hasDeadline, deadline, token);
+        }
+
+        private boolean isExpired() {
+            return token != null && token.isCancelled() || hasDeadline && System.nanoTime() - deadline >= 0;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package sudoku;
+
+/**
+ * Keeps a puzzle loaded while a player places and retracts numbers, answering whether the board can still be solved
+ * and which candidates each cell has left without solving from scratch
+ * The starting numbers are propagated once. Every placement is applied on top of the current propagation state and
+ * remembers the propagator mark taken before it, so retracting the latest placement just undoes the trail, and
+ * retracting an earlier one undoes to its mark and replays the placements that came after it.
+ * A found solution is kept and reused for as long as it agrees with every placement, so most solvability checks
+ * never search at all.
+ * An instance is not thread safe.
+ * @author Ben Cullivan
+ */
+public class SolveSession {
+
+    private final int n;
+    private final SudokuLayout layout;
+    private final Propagator propagator;
+    private final PropagatingSolver engine = new PropagatingSolver();
+    private final Board puzzle;
+    private final boolean validPuzzle;
+
+    /**
+     * the placements in the order they were made: placedCells[i] holds placedNums[i], marks[i] is the propagator
+     * mark taken just before it was applied, and placedAt[cell] is one more than the cell's index in the list
+     * or 0 if the cell has no placement
+     */
+    private final int[] placedCells;
+    private final int[] placedNums;
+    private final int[] marks;
+    private final int[] placedAt;
+    private int placedCount;
+
+    /**
+     * how many placements have been applied to the propagator, and whether the last of them led to a
+     * contradiction, in which case the later ones are kept but not applied
+     */
+    private int applied;
+    private boolean contradiction;
+
+    /**
+     * the last solution that was found, valid while hasSolution is set
+     */
+    private final Board solution;
+    private boolean hasSolution;
+
+    /**
+     * @param puzzle the puzzle to play, 0 for an empty spot, which is copied
+     */
+    public SolveSession(Board puzzle) {
+        n = puzzle.getN();
+        layout = SudokuLayout.forSize(n);
+        propagator = new Propagator(n);
+        this.puzzle = puzzle.copy();
+        solution = new Board(n);
+        int cells = layout.getCells();
+        placedCells = new int[cells];
+        placedNums = new int[cells];
+        marks = new int[cells];
+        placedAt = new int[cells];
+        validPuzzle = propagator.load(this.puzzle) && propagator.propagate();
+    }
+
+    /**
+     * @param sudoku the puzzle to play, 0 for an empty spot, which is copied
+     * @param n the height and width of the sudoku which is nxn
+     */
+    public SolveSession(int[][] sudoku, int n) {
+        this(checkedBoard(sudoku, n));
+    }
+
+    /**
+     * Places a number in an empty cell, replacing any number the player put there before
+     * @param row the row number
+     * @param column the column number
+     * @param num the number to place
+     * @return false if the placement contradicts the puzzle or the earlier placements, which does not rule out a
+     *         contradiction that only a search would find
+     */
+    public boolean place(int row, int column, int num) {
+        int cell = cellOf(row, column);
+        if (num < 1 || num > n) throw new IllegalArgumentException("The number must be between 1 and " + n + ".");
+        if (puzzle.getCell(cell) != 0) throw new IllegalArgumentException("The cell holds a starting number.");
+        if (placedAt[cell] != 0) remove(placedAt[cell] - 1);
+        placedCells[placedCount] = cell;
+        placedNums[placedCount] = num;
+        placedAt[cell] = ++placedCount;
+        replay();
+        return isConsistent();
+    }
+
+    /**
+     * Takes back the number the player placed in a cell, if any
+     * @param row the row number
+     * @param column the column number
+     */
+    public void retract(int row, int column) {
+        int cell = cellOf(row, column);
+        if (placedAt[cell] == 0) return;
+        remove(placedAt[cell] - 1);
+        replay();
+    }
+
+    /**
+     * Takes back every placement, leaving only the starting numbers
+     */
+    public void reset() {
+        if (applied > 0) propagator.undo(marks[0]);
+        for (int i = 0; i < placedCount; i++) placedAt[placedCells[i]] = 0;
+        placedCount = 0;
+        applied = 0;
+        contradiction = false;
+    }
+
+    /**
+     * @return false if propagating the puzzle and the placements has already found a contradiction
+     */
+    public boolean isConsistent() {
+        return validPuzzle && !contradiction;
+    }
+
+    /**
+     * Checks whether the puzzle can still be completed with every placement kept
+     * The last solution is reused when it agrees with the placements, otherwise the search starts from the current
+     * propagation state.
+     * @return whether a solution exists
+     */
+    public boolean isSolvable() {
+        if (!isConsistent()) return false;
+        if (hasSolution && agreesWithPlacements()) return true;
+        int mark = propagator.mark();
+        hasSolution = engine.complete(propagator);
+        if (hasSolution) propagator.copyTo(solution);
+        propagator.undo(mark);
+        return hasSolution;
+    }
+
+    /**
+     * @return a new board holding a solution that keeps every placement, or null if there is none
+     */
+    public Board getSolution() {
+        return isSolvable() ? solution.copy() : null;
+    }
+
+    /**
+     * @param row the row number
+     * @param column the column number
+     * @return the mask of numbers the cell can still hold after propagation, with bit (num - 1) set for each,
+     *         or 0 once a contradiction has been found
+     */
+    public long candidates(int row, int column) {
+        int cell = cellOf(row, column);
+        return isConsistent() ? propagator.candidates(cell) : 0;
+    }
+
+    /**
+     * @param row the row number
+     * @param column the column number
+     * @return the starting number or the player's number in the cell, 0 if it has neither
+     */
+    public int get(int row, int column) {
+        int cell = cellOf(row, column);
+        int placed = placedAt[cell];
+        return placed == 0 ? puzzle.getCell(cell) : placedNums[placed - 1];
+    }
+
+    /**
+     * @return the number of cells the player has placed a number in
+     */
+    public int getPlacementCount() {
+        return placedCount;
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    /**
+     * Removes a placement from the list, first undoing it and everything applied after it
+     * @param index the position of the placement in the list
+     */
+    private void remove(int index) {
+        if (index < applied) {
+            propagator.undo(marks[index]);
+            applied = index;
+            contradiction = false;
+        }
+        placedAt[placedCells[index]] = 0;
+        placedCount--;
+        for (int i = index; i < placedCount; i++) {
+            placedCells[i] = placedCells[i + 1];
+            placedNums[i] = placedNums[i + 1];
+            placedAt[placedCells[i]] = i + 1;
+        }
+    }
+
+    /**
+     * Applies the placements that have not been applied yet, stopping at the first contradiction
+     */
+    private void replay() {
+        if (!validPuzzle) return;
+        while (!contradiction && applied < placedCount) {
+            int cell = placedCells[applied];
+            int num = placedNums[applied];
+            marks[applied++] = propagator.mark();
+            // a number that propagation already deduced needs no work
+            if (propagator.value(cell) == num) continue;
+            contradiction = propagator.value(cell) != 0 || !propagator.assign(cell, num) || !propagator.propagate();
+        }
+    }
+
+    /**
+     * @return whether the kept solution has every placed number in its cell
+     */
+    private boolean agreesWithPlacements() {
+        for (int i = 0; i < placedCount; i++) {
+            if (solution.getCell(placedCells[i]) != placedNums[i]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @param row the row number
+     * @param column the column number
+     * @return the flat index of the cell
+     */
+    private int cellOf(int row, int column) {
+        if (row < 0 || row >= n || column < 0 || column >= n) {
+            throw new IllegalArgumentException("The cell must be inside the " + n + "x" + n + " board.");
+        }
+        return row * n + column;
+    }
+
+    private static Board checkedBoard(int[][] sudoku, int n) {
+        if (sudoku.length != n || sudoku[0].length != n) {
+            throw new IllegalArgumentException("The sudoku must have n rows and n columns.");
+        }
+        return Board.fromArray(sudoku);
+    }
+}
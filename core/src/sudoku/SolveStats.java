@@ -0,0 +1,135 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * What one search did, filled in by solvers that are handed an instance
+ * Passing a stats object is what turns the per-cell counters on, so solves without one pay nothing for them. An
+ * instance can be reused for any number of solves and is reset at the start of each one.
+ * @author Ben Cullivan
+ */
+public class SolveStats {
+
+    private SolveStatus status = SolveStatus.UNSOLVABLE;
+    private long nodes;
+    private long backtracks;
+    private int maxDepth;
+    private long firstSolutionNanos;
+    private long nanos;
+    private int[] guesses = new int[0];
+
+    /**
+     * Clears every counter before a solve
+     * @param cells the number of cells of the board
+     */
+    void reset(int cells) {
+        status = SolveStatus.UNSOLVABLE;
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        firstSolutionNanos = -1;
+        nanos = 0;
+        if (guesses.length != cells) guesses = new int[cells];
+        else Arrays.fill(guesses, 0);
+    }
+
+    /**
+     * Records the totals of a finished solve, or of the part that ran before its budget did
+     */
+    void finish(SolveStatus status, long nodes, long backtracks, int maxDepth, long nanos) {
+        this.status = status;
+        this.nodes = nodes;
+        this.backtracks = backtracks;
+        this.maxDepth = maxDepth;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @param nanos the time from the start of the solve to its first solution
+     */
+    void firstSolution(long nanos) {
+        if (firstSolutionNanos < 0) firstSolutionNanos = nanos;
+    }
+
+    /**
+     * @return the per-cell counters the solver increments directly
+     */
+    int[] guessCounters() {
+        return guesses;
+    }
+
+    public boolean isSolved() {
+        return status == SolveStatus.SOLVED;
+    }
+
+    /**
+     * @return how the solve ended, the counters are partial when it ran out of budget
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the number of search nodes visited
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return the number of times the search ran out of numbers for a cell and stepped back
+     */
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    /**
+     * @return the deepest the search went, in filled cells
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return the nanoseconds until the first solution was found, or -1 if none was
+     */
+    public long getFirstSolutionNanos() {
+        return firstSolutionNanos;
+    }
+
+    /**
+     * @return the nanoseconds the whole solve took
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @param cell the flat index of a cell
+     * @return how many numbers the search tried in the cell
+     */
+    public int getGuesses(int cell) {
+        return guesses[cell];
+    }
+
+    /**
+     * @return the cell the search tried the most numbers in, or -1 if it tried none
+     */
+    public int getHottestCell() {
+        int hottest = -1;
+        for (int cell = 0; cell < guesses.length; cell++) {
+            if (guesses[cell] > 0 && (hottest < 0 || guesses[cell] > guesses[hottest])) hottest = cell;
+        }
+        return hottest;
+    }
+
+    @Override
+    public String toString() {
+        String summary = String.format("%s in %.3f ms: %d nodes, %d backtracks, max depth %d",
+                status == SolveStatus.SOLVED ? "Solved" : status == SolveStatus.UNSOLVABLE ? "Not solved"
+                        : "Budget exceeded", nanos / 1e6, nodes, backtracks, maxDepth);
+        // there is no first solution time when the search found none
+        if (firstSolutionNanos < 0) return summary;
+        return summary + String.format(", first solution after %.3f ms", firstSolutionNanos / 1e6);
+    }
+}
@@ -0,0 +1,23 @@
+package sudoku;
+
+/**
+ * How a solve with SolveOptions ended
+ * @author Ben Cullivan
+ */
+public enum SolveStatus {
+
+    /**
+     * the board was solved in place
+     */
+    SOLVED,
+
+    /**
+     * the search was finished and the board has no solution
+     */
+    UNSOLVABLE,
+
+    /**
+     * the search ran out of time or nodes or was cancelled before it finished, the board is left unchanged
+     */
+    BUDGET_EXCEEDED
+}
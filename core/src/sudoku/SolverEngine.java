@@ -0,0 +1,51 @@
+package sudoku;
+
+/**
+ * A sudoku solving algorithm that can be plugged in behind SudokuSolver.solve
+ * Engines solve the sudoku in place and may keep reusable state between calls, so an instance should not be shared
+ * between threads.
+ * @author Ben Cullivan
+ */
+public interface SolverEngine {
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array
+     * @param sudoku an array representing the sudoku to be solved, 0 for an empty spot
+     * @param n the height and width of the sudoku which is nxn
+     * @return whether the sudoku was successfully solved
+     */
+    boolean solve(int[][] sudoku, int n);
+
+    /**
+     * @return the number of search nodes the last call to solve visited, or 0 if the engine does not count them
+     */
+    default long getNodeCount() {
+        return 0;
+    }
+
+    /**
+     * Attempts to solve the board in place
+     * The default implementation goes through an int[][] copy; engines that work on flat boards override it.
+     * @param board the board to be solved, 0 for an empty spot
+     * @return whether the board was successfully solved
+     */
+    default boolean solve(Board board) {
+        int[][] sudoku = board.toArray();
+        if (!solve(sudoku, board.getN())) return false;
+        board.load(sudoku);
+        return true;
+    }
+
+    /**
+     * Attempts to solve the board in place, giving up once the options run out
+     * The default implementation only checks the options before it starts; the engines with a search loop override
+     * it and check them at every node.
+     * @param board the board to be solved, 0 for an empty spot
+     * @param options the deadline, node limit and cancellation token of the solve
+     * @return whether the board was solved, has no solution, or ran out of budget, in which case it is unchanged
+     */
+    default SolveStatus solve(Board board, SolveOptions options) {
+        if (options.start().isExceeded(1)) return SolveStatus.BUDGET_EXCEEDED;
+        return solve(board) ? SolveStatus.SOLVED : SolveStatus.UNSOLVABLE;
+    }
+}
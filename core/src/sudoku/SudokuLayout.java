@@ -0,0 +1,152 @@
+package sudoku;
+
+/**
+ * Precomputed lookup tables that describe the shape of an nxn sudoku
+ * Cells are addressed by a flat index (row * n + column). The tables only depend on n, so a single instance is
+ * shared by every grid and solver of that size.
+ * @author Ben Cullivan
+ */
+public final class SudokuLayout {
+
+    /**
+     * the largest supported board size, the most numbers a long candidate mask can comfortably hold
+     */
+    public static final int MAX_SIZE = 36;
+
+    /**
+     * one shared layout per supported board size, indexed by root and created when first used
+     */
+    private static final SudokuLayout[] LAYOUTS = new SudokuLayout[(int) Math.sqrt(MAX_SIZE) + 1];
+
+    private final int n;
+    private final int root;
+    private final int[] rowOf;
+    private final int[] columnOf;
+    private final int[] sectionOf;
+
+    /**
+     * peers[cell] holds every other cell that shares a row, column, or section with cell
+     */
+    private final int[][] peers;
+
+    /**
+     * units[0..n-1] are the rows, units[n..2n-1] the columns and units[2n..3n-1] the sections
+     */
+    private final int[][] units;
+
+    private SudokuLayout(int n) {
+        this.n = n;
+        root = (int) Math.sqrt(n);
+
+        // map every cell to its row, column, and section
+        int cells = n * n;
+        rowOf = new int[cells];
+        columnOf = new int[cells];
+        sectionOf = new int[cells];
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) {
+                int cell = row * n + column;
+                rowOf[cell] = row;
+                columnOf[cell] = column;
+                sectionOf[cell] = row / root + root * (column / root);
+            }
+        }
+
+        // list the cells of every row, column, and section
+        units = new int[3 * n][n];
+        int[] filled = new int[3 * n];
+        for (int cell = 0; cell < cells; cell++) {
+            int r = rowOf[cell];
+            int c = n + columnOf[cell];
+            int s = 2 * n + sectionOf[cell];
+            units[r][filled[r]++] = cell;
+            units[c][filled[c]++] = cell;
+            units[s][filled[s]++] = cell;
+        }
+
+        // a cell's peers are the union of its three units minus the cell itself
+        int peerCount = 3 * (n - 1) - 2 * (root - 1);
+        peers = new int[cells][peerCount];
+        for (int cell = 0; cell < cells; cell++) {
+            int count = 0;
+            for (int other = 0; other < cells; other++) {
+                if (other != cell && (rowOf[other] == rowOf[cell] || columnOf[other] == columnOf[cell]
+                        || sectionOf[other] == sectionOf[cell])) {
+                    peers[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    /**
+     * @param n the height and width of the sudoku which is nxn
+     * @return the shared layout for this board size
+     */
+    public static SudokuLayout forSize(int n) {
+        if (!isSupported(n)) {
+            throw new IllegalArgumentException("The sudoku must be 4x4, 9x9, 16x16, 25x25, or 36x36.");
+        }
+        int root = (int) Math.round(Math.sqrt(n));
+        // every field is final, so a layout read without the lock is always fully built
+        SudokuLayout layout = LAYOUTS[root];
+        return layout != null ? layout : create(root);
+    }
+
+    /**
+     * @param n the height and width of a sudoku
+     * @return whether n is a perfect square from 4 up to MAX_SIZE
+     */
+    public static boolean isSupported(int n) {
+        int root = (int) Math.round(Math.sqrt(n));
+        return root >= 2 && root * root == n && n <= MAX_SIZE;
+    }
+
+    /**
+     * @param root the square root of the board size
+     * @return the shared layout for that size, built by the first caller
+     */
+    private static synchronized SudokuLayout create(int root) {
+        if (LAYOUTS[root] == null) LAYOUTS[root] = new SudokuLayout(root * root);
+        return LAYOUTS[root];
+    }
+
+    public int getN() {
+        return n;
+    }
+
+    public int getRoot() {
+        return root;
+    }
+
+    public int getCells() {
+        return n * n;
+    }
+
+    public int rowOf(int cell) {
+        return rowOf[cell];
+    }
+
+    public int columnOf(int cell) {
+        return columnOf[cell];
+    }
+
+    public int sectionOf(int cell) {
+        return sectionOf[cell];
+    }
+
+    /**
+     * @param cell the flat index of a cell
+     * @return the cells that share a row, column, or section with the cell (do not modify)
+     */
+    public int[] peersOf(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * @param unit 0..n-1 for rows, n..2n-1 for columns, 2n..3n-1 for sections
+     * @return the cells in that unit (do not modify)
+     */
+    public int[] unit(int unit) {
+        return units[unit];
+    }
+}
@@ -0,0 +1,413 @@
+package sudoku;
+
+import java.util.Arrays;
+
+/**
+ * A class containing static methods for solving a sudoku puzzle
+ * @author Ben Cullivan
+ */
+public class SudokuSolver {
+
+    /**
+     * private constants
+     */
+    private static final int N = 9;               // the dimensions of the sudoku
+
+    // ** A zero on a sudoku represents an empty spot **
+
+    /**
+     * initialize an easy test sudoku
+     * https://www.websudoku.com/?level=1&set_id=2220966754
+     */
+    public static final int[][] EASY_TEST_SUDOKU = {
+            {0, 7, 4, 0, 6, 0, 2, 1, 0},
+            {0, 2, 6, 5, 1, 3, 0, 9, 0},
+            {9, 0, 0, 0, 7, 0, 0, 8, 0},
+            {0, 0, 0, 1, 0, 0, 0, 0, 0},
+            {0, 3, 0, 9, 8, 2, 0, 4, 0},
+            {0, 0, 0, 0, 0, 7, 0, 0, 0},
+            {0, 8, 0, 0, 5, 0, 0, 0, 9},
+            {0, 6, 0, 3, 2, 8, 5, 7, 0},
+            {0, 5, 2, 0, 9, 0, 4, 6, 0}
+    };
+
+    /**
+     * initialize a hard test sudoku
+     * https://www.websudoku.com/?level=4&set_id=4884744131
+     */
+    public static final int[][] HARD_TEST_SUDOKU = {
+            {6, 0, 0, 0, 0, 0, 0, 3, 0},
+            {3, 0, 0, 1, 0, 0, 4, 0, 0},
+            {0, 2, 5, 0, 0, 3, 0, 6, 0},
+            {0, 0, 0, 9, 0, 2, 0, 0, 0},
+            {1, 0, 7, 0, 0, 0, 6, 0, 4},
+            {0, 0, 0, 7, 0, 1, 0, 0, 0},
+            {0, 6, 0, 3, 0, 0, 8, 1, 0},
+            {0, 0, 8, 0, 0, 7, 0, 0, 6},
+            {0, 4, 0, 0, 0, 0, 0, 0, 5}
+    };
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array
+     * @param sudoku and array representing the sudoku to be solved
+     * @return whether the sudoku was successfully solved
+     */
+    public static boolean solve(int[][] sudoku, int n) {
+        // create a BitGrid to store the numbers of the sudoku as bitmasks for constant lookup times
+        BitGrid grid = new BitGrid(sudoku, n);
+
+        // start the recursive backtracking algorithm
+        return backtrack(sudoku, grid, n, 0, 0);
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array, choosing empty cells in the given order
+     * Use a BacktrackingSolver directly to reuse its state across puzzles or to read its node count.
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @param order the order in which empty cells are filled
+     * @return whether the sudoku was successfully solved
+     */
+    public static boolean solve(int[][] sudoku, int n, SearchOrder order) {
+        return new BacktrackingSolver(order).solve(sudoku, n);
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array with the given engine
+     * Engines keep reusable state, so callers solving many puzzles should hold on to one engine per thread.
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @param engine the algorithm used to solve the sudoku
+     * @return whether the sudoku was successfully solved
+     */
+    public static boolean solve(int[][] sudoku, int n, SolverEngine engine) {
+        return engine.solve(sudoku, n);
+    }
+
+    /**
+     * Attempts to solve the board in place with the given engine
+     * @param board the board to be solved
+     * @param engine the algorithm used to solve the board
+     * @return whether the board was successfully solved
+     */
+    public static boolean solve(Board board, SolverEngine engine) {
+        return engine.solve(board);
+    }
+
+    /**
+     * Attempts to solve the board in place with the given engine, giving up once the options run out
+     * @param board the board to be solved
+     * @param engine the algorithm used to solve the board
+     * @param options the deadline, node limit and cancellation token of the solve
+     * @return whether the board was solved, has no solution, or ran out of budget, in which case it is unchanged
+     */
+    public static SolveStatus solve(Board board, SolverEngine engine, SolveOptions options) {
+        return engine.solve(board, options);
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array and reports what the search did
+     * Use an IterativeSolver and a SolveStats directly to reuse them across puzzles.
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @return the search counters, including whether the sudoku was solved
+     */
+    public static SolveStats solveWithStats(int[][] sudoku, int n) {
+        SolveStats stats = new SolveStats();
+        new IterativeSolver().solve(sudoku, n, stats);
+        return stats;
+    }
+
+    /**
+     * Attempts to solve the sudoku by modifying the input sudoku array, giving up once the options run out
+     * The stats of a solve that ran out of budget cover the part of the search that ran.
+     * @param sudoku an array representing the sudoku to be solved
+     * @param n the height and width of the sudoku which is nxn
+     * @param options the deadline, node limit and cancellation token of the solve
+     * @return the search counters, including whether the sudoku was solved, has no solution, or ran out of budget
+     */
+    public static SolveStats solveWithStats(int[][] sudoku, int n, SolveOptions options) {
+        SolveStats stats = new SolveStats();
+        new IterativeSolver().solve(sudoku, n, stats, options);
+        return stats;
+    }
+
+    /**
+     * Counts the solutions of the sudoku without modifying it, stopping as soon as limit solutions have been found
+     * Use an IterativeSolver directly to reuse its state across puzzles, or a ParallelSolver for large search trees.
+     * @param sudoku an array representing the sudoku
+     * @param n the height and width of the sudoku which is nxn
+     * @param limit the number of solutions after which counting stops
+     * @return the number of solutions, at most limit
+     */
+    public static long countSolutions(int[][] sudoku, int n, long limit) {
+        return new IterativeSolver().countSolutions(sudoku, n, limit);
+    }
+
+    /**
+     * @param sudoku an array representing the sudoku
+     * @param n the height and width of the sudoku which is nxn
+     * @return whether the sudoku has exactly one solution
+     */
+    public static boolean hasUniqueSolution(int[][] sudoku, int n) {
+        return countSolutions(sudoku, n, 2) == 1;
+    }
+
+    /**
+     * This method implements recursive backtracking in order to solve the sudoku
+     * Time Complexity: O(9^(n*n)) where n is the number of rows and columns
+     * Space complexity: O(n*n) where n is the number of rows and columns
+     * @param sudoku the sudoku to be solved
+     * @param grid the bit grid that keeps track of the numbers that have been placed
+     * @param n the height and width of the sudoku which is nxn
+     * @param row the current row number
+     * @param column the current column number
+     * @return whether the sudoku can be solved given the numbers that are currently in it
+     */
+    private static boolean backtrack(int[][] sudoku, BitGrid grid, int n, int row, int column) {
+        // cases where numbers do not need to be checked for this row and column
+        if (column >= n) return backtrack(sudoku, grid, n, row+1, 0);
+        if (row >= n) return true;
+        if (sudoku[row][column] != 0) return backtrack(sudoku, grid, n, row, column+1);
+
+        // loop over the numbers that can legally be placed here, lowest first
+        long candidates = grid.candidates(row, column);
+        while (candidates != 0) {
+            long bit = candidates & -candidates;
+            candidates ^= bit;
+            int i = Long.numberOfTrailingZeros(bit) + 1;
+
+            // try adding this number to the grid
+            grid.add(i, row, column);
+            sudoku[row][column] = i;
+
+            // check if we can continue with this placement
+            // if we can, then return true
+            if (backtrack(sudoku, grid, n, row, column+1)) return true;
+            // if we cannot, then remove this number from the sudoku and grid and try the
+            // next number in the next loop iteration
+            else {
+                grid.remove(i, row, column);
+                sudoku[row][column] = 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Uses bitmasks to verify that every row, column, and section holds each number from 1 to n exactly once
+     * Each unit ORs one bit per cell into a mask, so a unit is valid exactly when every number is in range and the
+     * mask is full. Nothing is allocated.
+     * Time Complexity: O(n*n) where n is the number of rows and columns
+     * Space Complexity: O(1)
+     * @param sudoku the sudoku to be verified
+     * @param n the number of rows and columns in the sudoku
+     * @return whether the solution is valid
+     */
+    public static boolean verifySudoku(int[][] sudoku, int n) {
+        // make sure the board size is valid
+        if (!SudokuLayout.isSupported(n)) return false;
+        if (sudoku.length != n) return false;
+
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        long full = (1L << n) - 1;
+        for (int u = 0; u < 3 * n; u++) {
+            long mask = 0;
+            int range = 0;
+            for (int cell : layout.unit(u)) {
+                int num = sudoku[layout.rowOf(cell)][layout.columnOf(cell)];
+                // negative if num is outside 1..n
+                range |= (num - 1) | (n - num);
+                mask |= 1L << (num - 1);
+            }
+            if (range < 0 || mask != full) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Verifies a board the same way as verifySudoku
+     * @param board the board to be verified
+     * @return whether the solution is valid
+     */
+    public static boolean verifySudoku(Board board) {
+        int n = board.getN();
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        long full = (1L << n) - 1;
+        for (int u = 0; u < 3 * n; u++) {
+            long mask = 0;
+            int range = 0;
+            for (int cell : layout.unit(u)) {
+                int num = board.getCell(cell);
+                range |= (num - 1) | (n - num);
+                mask |= 1L << (num - 1);
+            }
+            if (range < 0 || mask != full) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Verifies that a solution is valid and that it keeps every starting number of its puzzle
+     * @param solution the solved sudoku
+     * @param puzzle the sudoku the solution was computed from, 0 for an empty spot
+     * @param n the number of rows and columns in the sudoku
+     * @return whether the solution is a valid solution of the puzzle
+     */
+    public static boolean verifySolution(int[][] solution, int[][] puzzle, int n) {
+        if (!verifySudoku(solution, n) || puzzle.length != n) return false;
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                if (puzzle[i][j] != 0 && puzzle[i][j] != solution[i][j]) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Verifies many solutions stored back to back in one byte array, one byte per cell as in Board
+     * The inner loops are branch free so that the JIT can unroll and vectorize them.
+     * @param solutions count boards of n*n cells each, starting at index 0
+     * @param puzzles the puzzles the solutions were computed from in the same layout, or null to skip that check
+     * @param count the number of boards
+     * @param n the number of rows and columns in each sudoku
+     * @param results receives whether each solution is valid
+     * @return the number of valid solutions
+     */
+    public static int verifyBatch(byte[] solutions, byte[] puzzles, int count, int n, boolean[] results) {
+        SudokuLayout layout = SudokuLayout.forSize(n);
+        int cells = n * n;
+        long full = (1L << n) - 1;
+        int valid = 0;
+        for (int b = 0; b < count; b++) {
+            int base = b * cells;
+
+            // every number must be in range and every starting number must be kept
+            int bad = 0;
+            for (int cell = base; cell < base + cells; cell++) {
+                int num = solutions[cell];
+                bad |= (num - 1) | (n - num);
+                if (puzzles != null) {
+                    // -1 when the starting number is not 0 and differs from the solution
+                    int given = puzzles[cell];
+                    bad |= -((-(given ^ num) >>> 31) & (-given >>> 31));
+                }
+            }
+
+            // every row, column, and section must hold every number
+            long missing = 0;
+            for (int u = 0; u < 3 * n; u++) {
+                long mask = 0;
+                for (int cell : layout.unit(u)) mask |= 1L << (solutions[base + cell] - 1);
+                missing |= mask ^ full;
+            }
+
+            results[b] = bad >= 0 && missing == 0;
+            if (results[b]) valid++;
+        }
+        return valid;
+    }
+
+    /**
+     * Prints the sudoku
+     * @param sudoku the sudoku to be printed
+     * @param n the number of rows and columns in the sudoku
+     */
+    public static void displaySudoku(int[][] sudoku, int n) {
+        // print the top line of dashes
+        for (int i = 0; i < 3 * n + 2; i++) {
+            System.out.print('-');
+        }
+        System.out.print('\n');
+
+        // print each row of the sudoku surrounded by pipes
+        for (int i = 0; i < n; i++) {
+            System.out.print("| ");
+            for (int j = 0; j < n; j++) {
+                if (j < n - 1) System.out.print(sudoku[i][j] + "  ");
+                else System.out.print(sudoku[i][j] + " |\n");
+            }
+        }
+
+        // print the bottom line of dashes
+        for (int i = 0; i < 3 * n + 2; i++) {
+            System.out.print('-');
+        }
+        System.out.print("\n");
+    }
+
+    public static void main(String[] args) {
+        // display the initial easy sudoku
+        System.out.println("\nEasy test sudoku before solving:");
+        displaySudoku(EASY_TEST_SUDOKU, N);
+
+        // create a copy of the easy test sudoku that will be solved
+        int[][] easyToSolve = Arrays.stream(EASY_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+
+        // display the solved easy sudoku (if possible)
+        System.out.println("\nEasy test sudoku after solving:");
+        if (solve(easyToSolve, N)) displaySudoku(easyToSolve, N);
+        else System.out.println("\nThis sudoku cannot be solved.");
+
+        if (verifySolution(easyToSolve, EASY_TEST_SUDOKU, N)) System.out.println("Solution Verified ✅\n\n");
+        else System.out.println("Incorrect Solution ❌\n\n");
+
+        // display the initial hard sudoku
+        System.out.println("Hard test sudoku before solving: ");
+        displaySudoku(HARD_TEST_SUDOKU, N);
+
+        // create a copy of the hard test sudoku that will be solved
+        int[][] hardToSolve = Arrays.stream(HARD_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+
+        // display the solved hard sudoku (if possible)
+        System.out.println("\nHard test sudoku after solving:");
+        if (solve(hardToSolve, N)) displaySudoku(hardToSolve, N);
+        else System.out.println("\nTHis sudoku cannot be solved.");
+
+        if (verifySolution(hardToSolve, HARD_TEST_SUDOKU, N)) System.out.println("Solution Verified ✅\n\n");
+        else System.out.println("Incorrect Solution ❌\n\n");
+
+        // compare the number of search nodes each cell order needs on the hard sudoku
+        System.out.println("Search nodes for the hard test sudoku:");
+        for (SearchOrder order : SearchOrder.values()) {
+            BacktrackingSolver solver = new BacktrackingSolver(order);
+            int[][] copy = Arrays.stream(HARD_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+            solver.solve(copy, N);
+            System.out.println(order + ": " + solver.getNodeCount());
+        }
+
+        // show how much of the hard sudoku can be deduced without guessing
+        PropagatingSolver propagating = new PropagatingSolver();
+        int[][] copy = Arrays.stream(HARD_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+        propagating.solve(copy, N);
+        System.out.println("PROPAGATION: " + propagating.getNodeCount() + " (" + propagating.getGuessCount()
+                + " guesses)");
+        for (Deduction deduction : Deduction.values()) {
+            System.out.println("  " + deduction + ": " + propagating.getDeductionCount(deduction));
+        }
+
+        // solve the hard sudoku as an exact cover problem
+        DancingLinksSolver dancingLinks = new DancingLinksSolver();
+        copy = Arrays.stream(HARD_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+        if (solve(copy, N, dancingLinks) && verifySudoku(copy, N)) {
+            System.out.println("DANCING_LINKS: " + dancingLinks.getNodeCount());
+        }
+
+        // show where the search spent its effort on the hard sudoku
+        copy = Arrays.stream(HARD_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+        SolveStats stats = solveWithStats(copy, N);
+        int hottest = stats.getHottestCell();
+        System.out.println("\n" + stats);
+        if (hottest >= 0) {
+            System.out.println("Most guessed cell: row " + hottest / N + ", column " + hottest % N + " ("
+                    + stats.getGuesses(hottest) + " numbers tried)");
+        }
+
+        // a node budget stops the search early and keeps the counters of the part that ran
+        copy = Arrays.stream(HARD_TEST_SUDOKU).map(int[]::clone).toArray(int[][]::new);
+        System.out.println("With a budget of 10 nodes: " + solveWithStats(copy, N, SolveOptions.NONE.withMaxNodes(10)));
+
+        // a well formed sudoku has exactly one solution
+        System.out.println("\nHard test sudoku has a unique solution: " + hasUniqueSolution(HARD_TEST_SUDOKU, N));
+    }
+}
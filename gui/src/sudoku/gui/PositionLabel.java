@@ -1,3 +1,5 @@
+package sudoku.gui;
+
 import javax.swing.*;
 
 /**
@@ -1,3 +1,5 @@
+package sudoku.gui;
+
 /**
  * model to be stored in the stack
  * @author Ben Cullivan
@@ -1,3 +1,9 @@
+package sudoku.gui;
+
+import sudoku.Difficulty;
+import sudoku.PuzzleGenerator;
+import sudoku.SudokuLayout;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionListener;
@@ -14,9 +20,9 @@ public class SudokuGame extends JFrame {
     private static final int WIDTH = 500;
     private static final int HEIGHT = 530;
     private static final int BOTTOM_HEIGHT = 30;
-    private static final int N = 9;
-    private static final int ROOT = 3;
+    private static final int DEFAULT_SIZE = 9;
     private static final String STRIKES_STRING = "Strikes: ";
+    private static final double SPEED_SCALE = 20;
     private static final Font BUTTON_FONT = new Font("SansSerif", Font.PLAIN, 15);
     private static final Font LABEL_FONT = new Font("SansSerif", Font.BOLD, 15);
 
@@ -36,20 +42,25 @@ public class SudokuGame extends JFrame {
      */
     private int numStrikes = 0;
 
-    public SudokuGame() {
+    /**
+     * @param puzzle the sudoku to play
+     */
+    public SudokuGame(int[][] puzzle) {
         super("Sudoku");
-        initWindow();
+        initWindow(puzzle);
     }
 
     /**
      * Initializes the window for playing a sudoku game
+     * @param puzzle the sudoku to play
      */
-    private void initWindow() {
+    private void initWindow(int[][] puzzle) {
         // set up the main panel
         mainPanel = new JPanel();
         mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS));
         // add a sudoku grid to the main panel
-        mainGrid = new SudokuGrid(this, N, ROOT, SudokuSolver.HARD_TEST_SUDOKU);
+        int n = puzzle.length;
+        mainGrid = new SudokuGrid(this, n, SudokuLayout.forSize(n).getRoot(), puzzle);
         mainPanel.add(mainGrid);
         // add the bottom panel to the main panel
         initBottomPanel();
@@ -68,12 +79,18 @@ public class SudokuGame extends JFrame {
      */
     private void initBottomPanel() {
         // the bottom panel
-        JPanel bottomPanel = new JPanel(new GridLayout(1, 3));
+        JPanel bottomPanel = new JPanel(new GridLayout(1, 5));
         bottomPanel.setPreferredSize(new Dimension(WIDTH, BOTTOM_HEIGHT));
 
         // set up the solve button
         initSolveButton(bottomPanel);
 
+        // set up the instant solve button
+        initInstantButton(bottomPanel);
+
+        // set up the speed slider
+        initSpeedSlider(bottomPanel);
+
         // set up the clear button
         initClearButton(bottomPanel);
 
@@ -101,6 +118,43 @@ public class SudokuGame extends JFrame {
         bottomPanel.add(solve).setLocation(0, 0);
     }
 
+    /**
+     * sets up the button that shows the solution without the visual search
+     * @param bottomPanel the bottom panel that the button will be added to
+     */
+    private void initInstantButton(JPanel bottomPanel) {
+        // create the instant button
+        JButton instant = new JButton("Instant");
+        instant.setFont(BUTTON_FONT);
+        instant.setVerticalAlignment(SwingConstants.CENTER);
+        instant.setHorizontalAlignment(SwingConstants.CENTER);
+        instant.setFocusPainted(false);
+        instant.addActionListener(e -> mainGrid.solveInstantly());
+
+        // add the instant button to the bottom panel
+        bottomPanel.add(instant).setLocation(0, 1);
+    }
+
+    /**
+     * sets up the slider that controls how many steps per second the visual search shows, on a logarithmic scale
+     * @param bottomPanel the bottom panel that the slider will be added to
+     */
+    private void initSpeedSlider(JPanel bottomPanel) {
+        // the slider goes from 1 step per second to no pauses at all
+        int max = (int) Math.round(SPEED_SCALE * Math.log10(SudokuGrid.MAX_SPEED));
+        int initial = (int) Math.round(SPEED_SCALE * Math.log10(SudokuGrid.DEFAULT_SPEED));
+        JSlider speed = new JSlider(0, max, initial);
+        speed.setToolTipText("Solve speed");
+        speed.setFocusable(false);
+        speed.addChangeListener(e -> {
+            double stepsPerSecond = Math.pow(10, speed.getValue() / SPEED_SCALE);
+            mainGrid.setSpeed((int) Math.round(stepsPerSecond));
+        });
+
+        // add the slider to the bottom panel
+        bottomPanel.add(speed).setLocation(0, 2);
+    }
+
     /**
      * sets up the clear button
      * @param bottomPanel the bottom panel that the button will be added to
@@ -115,7 +169,7 @@ public class SudokuGame extends JFrame {
         clear.addActionListener(createClearListener());
 
         // add the clear button to the bottom panel
-        bottomPanel.add(clear).setLocation(0, 1);
+        bottomPanel.add(clear).setLocation(0, 3);
     }
 
     /**
@@ -130,11 +184,11 @@ public class SudokuGame extends JFrame {
         strikeLabel.setVerticalAlignment(SwingConstants.CENTER);
 
         // add the text to the bottom panel
-        bottomPanel.add(strikeLabel).setLocation(0, 2);
+        bottomPanel.add(strikeLabel).setLocation(0, 4);
     }
 
     /**
-     * calls the method that visually displays recursive backtracking
+     * calls the method that visually displays backtracking
      * @return the action listener that is called when the user clicks solve
      */
     private ActionListener createSolveListener() {
@@ -158,11 +212,11 @@ public class SudokuGame extends JFrame {
      * adds a strike
      */
     public void addStrike() {
-        // if there have already been 5, clear the board and show the solve
+        // if there have already been 5, reset the strikes and show the next logical step
         if (numStrikes >= 5) {
             numStrikes = 0;
             strikeLabel.setText(STRIKES_STRING + numStrikes);
-            mainGrid.solve();
+            mainGrid.showHint();
         }
         // add a strike
         else {
@@ -171,8 +225,23 @@ public class SudokuGame extends JFrame {
         }
     }
 
+    /**
+     * Tells the user the puzzle has no solution and closes the game
+     */
+    public void showUnsolvable() {
+        JOptionPane.showMessageDialog(this, "This sudoku has no solution.", "Sudoku", JOptionPane.ERROR_MESSAGE);
+        dispose();
+    }
+
     public static void main(String[] args) {
-        // start the game
-        SwingUtilities.invokeLater(SudokuGame::new);
+        // generate the puzzle on the main thread so the event dispatch thread only builds the window
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        if (n > SudokuGrid.MAX_SIZE) {
+            System.out.println("The game can show boards of up to " + SudokuGrid.MAX_SIZE + "x" + SudokuGrid.MAX_SIZE
+                    + ", since numbers are shown as 1-9 and A-P.");
+            return;
+        }
+        int[][] puzzle = new PuzzleGenerator().generate(n, Difficulty.MEDIUM).toArray();
+        SwingUtilities.invokeLater(() -> new SudokuGame(puzzle));
     }
 }
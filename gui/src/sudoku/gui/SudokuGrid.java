@@ -0,0 +1,544 @@
+package sudoku.gui;
+
+import sudoku.BitGrid;
+import sudoku.Board;
+import sudoku.Hint;
+import sudoku.HintEngine;
+import sudoku.SolveSession;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Stack;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Subclass of JPanel
+ * Stores and displays sub panels and labels for each number in a sudoku
+ * @author Ben Cullivan
+ */
+public class SudokuGrid extends JPanel {
+
+    /**
+     * private constants
+     */
+    private final int N;
+    private final int ROOT;
+    private static final Color SELECTED_COLOR = new Color(255, 0, 0);
+    private final Font MAIN_FONT;
+    private final Font SECONDARY_FONT;
+    private static final Color BACKGROUND_COLOR = new Color(238, 238, 238);
+    private static final Color SOLVING_COLOR = Color.GREEN;
+    private static final Color HINT_COLOR = Color.YELLOW;
+    private static final int FRAME_RATE = 60;
+    private static final long FRAME_NANOS = 1_000_000_000L / FRAME_RATE;
+
+    /**
+     * the speed at which the visual solve stops pausing between steps
+     */
+    public static final int MAX_SPEED = 100_000;
+    public static final int DEFAULT_SPEED = 500;
+
+    /**
+     * the largest board the grid can show, since numbers are shown and typed as 1-9 then A-P like the text format
+     */
+    public static final int MAX_SIZE = 25;
+
+    private final PositionLabel[][] sudoku;
+    private final Board unsolved;
+    private final CompletableFuture<SolveSession> session;
+    private final HintEngine hints = new HintEngine(64);
+    private final HashSet<Character> numChars = new HashSet<>();
+    private final SudokuGame parent;
+
+    /**
+     * the numbers the labels show, the latest state published by the solve worker and the copy of it being drawn
+     */
+    private final Board shown;
+    private final Board frame;
+    private final Board drawing;
+
+    private PositionLabel selected;
+    private PositionLabel hinted;
+    private SolveWorker worker;
+    private Timer frameTimer;
+    private volatile int speed = DEFAULT_SPEED;
+
+    public SudokuGrid(SudokuGame parent, int n, int root, int[][] unsolved) {
+        // initialize this panel with a grid layout
+        super(new GridLayout(root, root));
+
+        // there are no symbols left for the numbers of boards above 25x25
+        if (n > MAX_SIZE) {
+            throw new IllegalArgumentException("The game can show boards of up to " + MAX_SIZE + "x" + MAX_SIZE + ".");
+        }
+
+        // set the parent
+        this.parent = parent;
+
+        // initialize constants
+        N = n;
+        ROOT = root;
+        // shrink the fonts as the cells get smaller, so that a 9x9 grid keeps its original sizes
+        MAIN_FONT = new Font("SansSerif", Font.BOLD, Math.max(10, 315 / n));
+        SECONDARY_FONT = new Font("SansSerif", Font.BOLD, Math.max(8, 135 / n));
+
+        // initialize the sudoku array
+        sudoku = new PositionLabel[n][n];
+
+        // add num chars to the hash set, letters are accepted in either case
+        for (int i = 1; i <= N; i++) {
+            numChars.add(Character.toUpperCase(Character.forDigit(i, Character.MAX_RADIX)));
+            numChars.add(Character.forDigit(i, Character.MAX_RADIX));
+        }
+
+        // set the unsolved sudoku, keeping a copy so the caller's array can be reused
+        this.unsolved = Board.fromArray(unsolved);
+
+        // keep the puzzle propagated so that every number the user enters is checked incrementally, building and
+        // checking it in the background since it is only needed once the user enters a number
+        Board puzzle = this.unsolved.copy();
+        session = CompletableFuture.supplyAsync(() -> {
+            SolveSession built = new SolveSession(puzzle);
+            if (!built.isSolvable()) throw new IllegalArgumentException("Unsolved sudoku not solvable.");
+            return built;
+        });
+        session.whenComplete((built, failure) -> {
+            if (failure != null) SwingUtilities.invokeLater(parent::showUnsolvable);
+        });
+
+        // the boards used by the visual solve, reused every time solve is clicked
+        shown = new Board(N);
+        frame = new Board(N);
+        drawing = new Board(N);
+
+        // set the border of this label
+        setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+
+        // initialize the grid
+        initGrid();
+    }
+
+    /**
+     * Initializes the sudoku grid
+     */
+    public void initGrid() {
+        for (int i = 0; i < ROOT; i++) {
+            for (int j = 0; j < ROOT; j++) {
+                // create a sub-section which will be another JPanel
+                JPanel section = new JPanel(new GridLayout(ROOT, ROOT));
+                section.setBorder(BorderFactory.createLineBorder(Color.BLACK, 2));
+                int startA = i * ROOT;
+                int startB = j * ROOT;
+                for (int a = 0; a < ROOT; a++) {
+                    for (int b = 0; b < ROOT; b++) {
+                        // create a label
+                        PositionLabel label = new PositionLabel(startA + a, startB + b);
+                        label.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
+                        label.setOpaque(true);
+
+                        // if this position contains one of the provided numbers, add it to the grid
+                        if (unsolved.get(startA + a, startB + b) != 0) {
+                            initNonSelectableLabel(label, symbolOf(unsolved.get(startA + a, startB + b)));
+                        } else {
+                            initSelectableLabel(label);
+                        }
+
+                        // add the label to the sudoku grid
+                        sudoku[startA + a][startB + b] = label;
+                        // add the label to the section panel
+                        section.add(label).setLocation(a, b);
+                    }
+                }
+                // add the section to this panel
+                add(section).setLocation(i, j);
+            }
+        }
+    }
+
+    /**
+     * removes all numbers that have been input by the user
+     */
+    public void clearGrid() {
+        // stop the visual solve if it is running
+        stopSolve();
+        clearHint();
+        session().reset();
+        // loop over the grid and clear all of the numbers that are not in the unsolved sudoku
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                if (unsolved.get(i, j) == 0) {
+                    sudoku[i][j].setBackground(BACKGROUND_COLOR);
+                    sudoku[i][j].setText("");
+                    sudoku[i][j].setFont(SECONDARY_FONT);
+                    sudoku[i][j].setHorizontalAlignment(SwingConstants.RIGHT);
+                    sudoku[i][j].setVerticalAlignment(SwingConstants.TOP);
+                }
+            }
+        }
+    }
+
+    /**
+     * removes all numbers that have been input by the user and sets the font to the main font
+     */
+    private void clearGridSetFont() {
+        session().reset();
+        // loop over the grid and set the font of all the numbers that are not in the unsolved sudoku
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                if (unsolved.get(i, j) == 0) {
+                    sudoku[i][j].setBackground(BACKGROUND_COLOR);
+                    sudoku[i][j].setText("");
+                    sudoku[i][j].setFont(MAIN_FONT);
+                    sudoku[i][j].setHorizontalAlignment(SwingConstants.CENTER);
+                    sudoku[i][j].setVerticalAlignment(SwingConstants.CENTER);
+                }
+            }
+        }
+    }
+
+    /**
+     * Initializes each label that contains a number in the unsolved sudoku
+     *
+     * @param label the label being initialized
+     * @param text  the number to be placed on the label
+     */
+    private void initNonSelectableLabel(PositionLabel label, String text) {
+        label.setText(text);
+        label.setHorizontalAlignment(SwingUtilities.CENTER);
+        label.setVerticalAlignment(SwingUtilities.CENTER);
+        label.setFont(MAIN_FONT);
+        label.setEnabled(false);
+    }
+
+    /**
+     * initializes each label that does not contain a number in the unsolved sudoku
+     *
+     * @param label the label being initialized
+     */
+    private void initSelectableLabel(PositionLabel label) {
+        label.setHorizontalAlignment(SwingUtilities.RIGHT);
+        label.setVerticalAlignment(SwingUtilities.TOP);
+        label.setFont(SECONDARY_FONT);
+        label.setFocusable(true);
+        label.setOpaque(true);
+        label.addMouseListener(createMouseListener());
+        label.addKeyListener(createKeyListener());
+    }
+
+    /**
+     * @return a mouse listener that is called when the user presses on a square of the sudoku
+     */
+    private MouseListener createMouseListener() {
+        return new MouseListener() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                // do nothing
+            }
+
+            @Override
+            public void mousePressed(MouseEvent e) {
+                // if there is an element that is already selected, restore its border to the normal border
+                if (selected != null) selected.setBorder(BorderFactory.createLineBorder(Color.BLACK, 1));
+                // set that this label is now selected
+                selected = (PositionLabel) e.getComponent();
+                // set the border of this label to show that it is selected
+                selected.setBorder(BorderFactory.createLineBorder(SELECTED_COLOR, 1));
+                // request focus so that this label can receive keyboard events
+                selected.requestFocus();
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                // do nothing
+            }
+
+            @Override
+            public void mouseEntered(MouseEvent e) {
+                // do nothing
+            }
+
+            @Override
+            public void mouseExited(MouseEvent e) {
+                // do nothing
+            }
+        };
+    }
+
+    /**
+     * @return a key listener that is called when the user types a key (only if the user has selected a sudoku square)
+     */
+    private KeyListener createKeyListener() {
+        return new KeyListener() {
+            @Override
+            public void keyTyped(KeyEvent e) {
+                System.out.println("typed");
+                // if they typed a number, set the text of this label
+                if (!e.isActionKey() && selected != null && numChars.contains(e.getKeyChar())) {
+                    selected.setText(String.valueOf(Character.toUpperCase(e.getKeyChar())));
+                }
+            }
+
+            @Override
+            public void keyPressed(KeyEvent e) {
+                System.out.println("pressed");
+                if (e.getKeyCode() == KeyEvent.VK_ENTER && selected != null && !selected.getText().equals("")) {
+                    // get the number that is on the label
+                    int guess = Character.digit(selected.getText().charAt(0), Character.MAX_RADIX);
+                    int row = selected.getRow();
+                    int column = selected.getColumn();
+                    // if the sudoku can still be solved with this number, set it
+                    SolveSession current = session();
+                    if (current.place(row, column, guess) && current.isSolvable()) {
+                        clearHint();
+                        selected.setHorizontalAlignment(SwingUtilities.CENTER);
+                        selected.setVerticalAlignment(SwingUtilities.CENTER);
+                        selected.setFont(MAIN_FONT);
+                        selected.setBackground(BACKGROUND_COLOR);
+                    }
+                    // if the user is wrong, add a strike and clear the number
+                    else {
+                        current.retract(row, column);
+                        parent.addStrike();
+                        selected.setText("");
+                    }
+                }
+                // if the user pressed the backspace key (the delete key on mac)
+                else if (e.getKeyCode() == KeyEvent.VK_BACK_SPACE && selected != null) {
+                    session().retract(selected.getRow(), selected.getColumn());
+                    selected.setText("");
+                    selected.setHorizontalAlignment(SwingUtilities.RIGHT);
+                    selected.setVerticalAlignment(SwingUtilities.TOP);
+                    selected.setFont(SECONDARY_FONT);
+                }
+            }
+
+            @Override
+            public void keyReleased(KeyEvent e) {
+                // do nothing
+            }
+        };
+    }
+
+    /**
+     * @return the session of the puzzle, waiting for the background check if it has not finished yet
+     */
+    private SolveSession session() {
+        try {
+            return session.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * @param num a number from 1 to MAX_SIZE
+     * @return the symbol shown for the number, 1-9 then A-P as in the text puzzle format
+     */
+    private static String symbolOf(int num) {
+        return String.valueOf(Character.toUpperCase(Character.forDigit(num, Character.MAX_RADIX)));
+    }
+
+    /**
+     * Highlights the cell of the cheapest next logical step and explains it, replacing the previous hint
+     * A board that contradicts itself is reported rather than solved, and the visual solve is only the fallback when
+     * the numbers on the board can be advanced by guessing alone.
+     */
+    public void showHint() {
+        clearHint();
+        SolveSession current = session();
+        if (!current.isSolvable()) {
+            JOptionPane.showMessageDialog(parent, "The numbers on the board contradict each other, so there is no "
+                    + "next step. Remove some of them to continue.", "Hint", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        Board board = new Board(N);
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) board.set(i, j, current.get(i, j));
+        }
+        Hint hint = hints.next(board);
+        if (hint == null) {
+            solve();
+            return;
+        }
+        hinted = sudoku[hint.getRow()][hint.getColumn()];
+        hinted.setBackground(HINT_COLOR);
+        JOptionPane.showMessageDialog(parent, hint.toString(), "Hint", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Takes the highlight off the cell of the last hint
+     */
+    private void clearHint() {
+        if (hinted == null) return;
+        hinted.setBackground(BACKGROUND_COLOR);
+        hinted = null;
+    }
+
+    /**
+     * Shows the backtracking search solving the sudoku
+     * The search runs on a worker thread at the current speed and publishes its board at most once per frame, and
+     * the event dispatch thread redraws the cells that changed at a fixed frame rate.
+     */
+    public void solve() {
+        stopSolve();
+        clearHint();
+        clearGridSetFont();
+        shown.copyFrom(unsolved);
+        synchronized (frame) {
+            frame.copyFrom(unsolved);
+        }
+        worker = new SolveWorker();
+        frameTimer = new Timer(1000 / FRAME_RATE, e -> drawFrame());
+        frameTimer.start();
+        worker.execute();
+    }
+
+    /**
+     * Shows the solution straight away, without the visual search
+     */
+    public void solveInstantly() {
+        stopSolve();
+        clearHint();
+        clearGridSetFont();
+        shown.copyFrom(unsolved);
+        synchronized (frame) {
+            frame.copyFrom(session().getSolution());
+        }
+        drawFrame();
+    }
+
+    /**
+     * @param stepsPerSecond the number of search steps the visual solve shows per second, MAX_SPEED for no pauses
+     */
+    public void setSpeed(int stepsPerSecond) {
+        speed = Math.max(1, stepsPerSecond);
+    }
+
+    /**
+     * Cancels the visual solve and stops redrawing
+     */
+    private void stopSolve() {
+        if (worker != null) worker.cancel(true);
+        if (frameTimer != null) frameTimer.stop();
+        worker = null;
+    }
+
+    /**
+     * Updates the labels of the cells whose numbers differ from the latest published board
+     */
+    private void drawFrame() {
+        synchronized (frame) {
+            drawing.copyFrom(frame);
+        }
+        for (int i = 0; i < N; i++) {
+            for (int j = 0; j < N; j++) {
+                int num = drawing.get(i, j);
+                if (unsolved.get(i, j) != 0 || num == shown.get(i, j)) continue;
+                shown.set(i, j, num);
+                sudoku[i][j].setText(num == 0 ? "" : symbolOf(num));
+                sudoku[i][j].setBackground(num == 0 ? BACKGROUND_COLOR : SOLVING_COLOR);
+            }
+        }
+    }
+
+    /**
+     * Runs the backtracking search the visual solve shows, trying the numbers of each empty cell in row order
+     */
+    private class SolveWorker extends SwingWorker<Boolean, Void> {
+
+        @Override
+        protected Boolean doInBackground() {
+            Board working = unsolved.copy();
+            BitGrid grid = new BitGrid(working.getN());
+            grid.load(working);
+
+            // save the unfilled positions and start at the first one
+            ArrayList<int[]> unfilled = new ArrayList<>();
+            for (int i = 0; i < N; i++) {
+                for (int j = 0; j < N; j++) {
+                    if (working.get(i, j) == 0) unfilled.add(new int[]{i, j});
+                }
+            }
+            if (unfilled.isEmpty()) return true;
+            Stack<StackItem> stack = new Stack<>();
+            stack.push(new StackItem(0, unfilled.get(0)[0], unfilled.get(0)[1]));
+            int index = 0;
+
+            long nextStep = System.nanoTime();
+            long lastPublish = nextStep;
+            while (!isCancelled()) {
+                // if the stack is empty the sudoku cannot be solved
+                if (stack.empty()) {
+                    share(working);
+                    return false;
+                }
+                StackItem current = stack.peek();
+                int row = current.getRow();
+                int column = current.getColumn();
+
+                // if the this number has been added, remove it from the grid before trying the next one
+                if (current.getAdded()) {
+                    working.set(row, column, 0);
+                    grid.remove(current.getNum(), row, column);
+                    current.setAdded(false);
+                }
+                current.setNum(current.getNum() + 1);
+
+                // if every number has been tried, backtrack
+                if (current.getNum() > N) {
+                    index--;
+                    stack.pop();
+                } else if (grid.isValidPlacement(current.getNum(), row, column)) {
+                    working.set(row, column, current.getNum());
+                    grid.add(current.getNum(), row, column);
+                    current.setAdded(true);
+                    index++;
+                    if (index >= unfilled.size()) {
+                        share(working);
+                        return true;
+                    }
+                    stack.push(new StackItem(0, unfilled.get(index)[0], unfilled.get(index)[1]));
+                }
+
+                // hand the board to the event dispatch thread at most once per frame
+                long now = System.nanoTime();
+                if (now - lastPublish >= FRAME_NANOS) {
+                    share(working);
+                    lastPublish = now;
+                }
+
+                // pause to keep the speed, dropping the backlog if the search fell behind by more than a frame
+                int stepsPerSecond = speed;
+                if (stepsPerSecond < MAX_SPEED) {
+                    nextStep += 1_000_000_000L / stepsPerSecond;
+                    if (nextStep > now) LockSupport.parkNanos(nextStep - now);
+                    else if (now - nextStep > FRAME_NANOS) nextStep = now;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * @param working the board of the search
+         */
+        private void share(Board working) {
+            synchronized (frame) {
+                frame.copyFrom(working);
+            }
+        }
+
+        @Override
+        protected void done() {
+            // show the final board unless this solve was replaced or cleared
+            if (worker != this) return;
+            frameTimer.stop();
+            drawFrame();
+        }
+    }
+}
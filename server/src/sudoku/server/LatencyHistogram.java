@@ -0,0 +1,79 @@
+package sudoku.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock free histogram of latencies in microseconds with log-linear buckets
+ * Every power of two is split into SUB_BUCKETS equal buckets, so a percentile is reported to within 1/SUB_BUCKETS
+ * of its true value with a fixed amount of memory however many latencies are recorded.
+ * @author Ben Cullivan
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+
+    /**
+     * @param nanos a latency in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(Math.max(0, nanos / 1000)));
+    }
+
+    /**
+     * @param percentile the percentile to report, from 0 to 100
+     * @return the upper bound in microseconds of the bucket holding the percentile, or 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) {
+            seen += counts.get(bucket);
+            if (seen >= rank) return upperBound(bucket);
+        }
+        return upperBound(counts.length() - 1);
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+        long total = 0;
+        for (int bucket = 0; bucket < counts.length(); bucket++) total += counts.get(bucket);
+        return total;
+    }
+
+    /**
+     * Forgets every recorded latency
+     */
+    public void reset() {
+        for (int bucket = 0; bucket < counts.length(); bucket++) counts.set(bucket, 0);
+    }
+
+    /**
+     * Values below SUB_BUCKETS get a bucket each, larger values share a bucket with the values that have the same
+     * highest bit and the same SUB_BITS bits below it
+     * @param micros a latency in microseconds
+     * @return the index of its bucket
+     */
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * @param bucket the index of a bucket
+     * @return the largest latency in microseconds that falls in it
+     */
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long start = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return start + (1L << shift) - 1;
+    }
+}
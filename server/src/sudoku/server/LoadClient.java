@@ -0,0 +1,91 @@
+package sudoku.server;
+
+import sudoku.Board;
+import sudoku.PuzzleGenerator;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a SolveServer on localhost from a number of concurrent clients and reports what they saw
+ * Every client sends its requests back to back, so the offered load grows with the number of clients until the
+ * server starts refusing requests. The server's own view is printed from /metrics at the end.
+ * Usage: java LoadClient [port] [clients] [requests per client] [puzzles per request]
+ * @author Ben Cullivan
+ */
+public class LoadClient {
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int requestsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int puzzlesPerRequest = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+
+        // build the request bodies up front so the clients only measure the server
+        String[] bodies = new String[64];
+        PuzzleGenerator generator = new PuzzleGenerator(42);
+        for (int i = 0; i < bodies.length; i++) {
+            StringBuilder body = new StringBuilder();
+            for (int p = 0; p < puzzlesPerRequest; p++) body.append(toLine(generator.generate(9, null))).append('\n');
+            bodies[i] = body.toString();
+        }
+
+        HttpClient http = HttpClient.newHttpClient();
+        URI solve = URI.create("http://localhost:" + port + "/solve");
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder ok = new LongAdder();
+        LongAdder refused = new LongAdder();
+        LongAdder failed = new LongAdder();
+
+        ExecutorService pool = Executors.newFixedThreadPool(clients);
+        long start = System.nanoTime();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            pool.execute(() -> {
+                for (int r = 0; r < requestsPerClient; r++) {
+                    HttpRequest request = HttpRequest.newBuilder(solve)
+                            .POST(HttpRequest.BodyPublishers.ofString(bodies[(client + r) % bodies.length]))
+                            .build();
+                    long sent = System.nanoTime();
+                    try {
+                        int status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        latencies.record(System.nanoTime() - sent);
+                        if (status == 200) ok.increment();
+                        else if (status == 429) refused.increment();
+                        else failed.increment();
+                    } catch (Exception e) {
+                        failed.increment();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(1, TimeUnit.HOURS);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d ok, %d refused, %d failed in %.2f s, %.1f requests/s, p50 %d us, p99 %d us%n",
+                ok.sum(), refused.sum(), failed.sum(), seconds, (ok.sum() + refused.sum()) / seconds,
+                latencies.getPercentile(50), latencies.getPercentile(99));
+        HttpRequest metrics = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/metrics")).build();
+        System.out.print(http.send(metrics, HttpResponse.BodyHandlers.ofString()).body());
+    }
+
+    /**
+     * @param board a 9x9 board
+     * @return the board in the text format, '.' for a blank
+     */
+    private static String toLine(Board board) {
+        StringBuilder line = new StringBuilder();
+        for (int cell = 0; cell < 81; cell++) {
+            int num = board.getCell(cell);
+            line.append(num == 0 ? '.' : (char) ('0' + num));
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,453 @@
+package sudoku.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import sudoku.Board;
+import sudoku.DancingLinksSolver;
+import sudoku.Hint;
+import sudoku.HintEngine;
+import sudoku.PuzzleReader;
+import sudoku.PuzzleWriter;
+import sudoku.SolveOptions;
+import sudoku.SolveStatus;
+import sudoku.SolverEngine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A local HTTP server that solves puzzles sent in the PuzzleReader text format
+ * POST /solve?n=9 takes one or more puzzles, one per line, and answers with the solutions in the same order.
+ * Puzzles that cannot be solved are sent back unchanged, as SolveFile does. GET /metrics reports the request
+ * counts, the throughput and the p50 and p99 latencies. POST /hint?n=9 takes one board in progress and answers with
+ * the cheapest next logical step from one HintEngine shared by every request, so a position any client asked about
+ * before is answered from its memo. A hint needs no search, so it is worked out on the handler thread.
+ * Handler threads only parse a request and queue it, so they never wait on a solve. A fixed pool of workers takes
+ * every request that is waiting at once as a micro-batch and answers each one as soon as its puzzles are solved.
+ * The queue holds a fixed number of puzzles, and a request that does not fit is answered 429 straight away, so
+ * latency stays bounded under overload instead of growing with the backlog. A request body is read only until it
+ * holds more puzzles than the whole queue, or more bytes than those puzzles could take, and is then answered 413,
+ * so one large POST cannot fill the handlers' memory either. Every request also has a solve timeout, counted from
+ * its arrival, and puzzles still unsolved when it runs out are sent back unchanged, so one hostile or nearly empty
+ * board cannot hold a worker for long.
+ * @author Ben Cullivan
+ */
+public class SolveServer {
+
+    private static final int DEFAULT_PORT = 8080;
+    private static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    private static final int MAX_BATCH = 64;
+    private static final int HANDLER_THREADS = 4;
+    private static final int HINT_CACHE = 4096;
+    private static final Duration DEFAULT_SOLVE_TIMEOUT = Duration.ofSeconds(1);
+
+    /**
+     * the bytes a line may take beyond its cells, for the line break and a short note after the last cell
+     */
+    private static final int LINE_SLACK = 64;
+
+    static {
+        // the JDK server writes the headers and the body separately, which on a kept alive connection waits out the
+        // client's delayed ack (about 40 ms) unless Nagle's algorithm is off; it reads this once when first used
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService handlers;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final Supplier<SolverEngine> engineFactory;
+    private final long solveTimeoutNanos;
+
+    /**
+     * the waiting requests, and one permit for every puzzle the queue still has room for
+     */
+    private final LinkedBlockingQueue<Job> queue = new LinkedBlockingQueue<>();
+    private final int queueCapacity;
+    private final Semaphore room;
+
+    private final HintEngine hints = new HintEngine(HINT_CACHE);
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder puzzles = new LongAdder();
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder exceeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile long started;
+
+    /**
+     * @param port the port to listen on, 0 for any free port
+     * @param workerCount the number of threads that solve puzzles
+     * @param queueCapacity the number of puzzles that may wait for a worker before requests are refused
+     * @param engineFactory creates the engine used by each worker thread
+     */
+    public SolveServer(int port, int workerCount, int queueCapacity, Supplier<SolverEngine> engineFactory)
+            throws IOException {
+        this(port, workerCount, queueCapacity, engineFactory, DEFAULT_SOLVE_TIMEOUT);
+    }
+
+    /**
+     * @param port the port to listen on, 0 for any free port
+     * @param workerCount the number of threads that solve puzzles
+     * @param queueCapacity the number of puzzles that may wait for a worker before requests are refused
+     * @param engineFactory creates the engine used by each worker thread
+     * @param solveTimeout the time from the arrival of a request after which its puzzles are no longer searched
+     */
+    public SolveServer(int port, int workerCount, int queueCapacity, Supplier<SolverEngine> engineFactory,
+                       Duration solveTimeout) throws IOException {
+        if (workerCount <= 0) throw new IllegalArgumentException("There must be at least one worker.");
+        if (queueCapacity <= 0) throw new IllegalArgumentException("The queue capacity must be positive.");
+        this.workerCount = workerCount;
+        this.queueCapacity = queueCapacity;
+        this.engineFactory = engineFactory;
+        solveTimeoutNanos = solveTimeout.toNanos();
+        room = new Semaphore(queueCapacity);
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        handlers = Executors.newFixedThreadPool(HANDLER_THREADS);
+        workers = Executors.newFixedThreadPool(workerCount);
+        server.setExecutor(handlers);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/hint", this::handleHint);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Starts the workers and begins accepting connections
+     */
+    public void start() {
+        started = System.nanoTime();
+        for (int i = 0; i < workerCount; i++) workers.execute(this::work);
+        server.start();
+    }
+
+    /**
+     * Stops accepting connections and stops the workers, dropping any request still in the queue
+     */
+    public void stop() {
+        server.stop(0);
+        workers.shutdownNow();
+        handlers.shutdownNow();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the current metrics, one "name value" pair per line
+     */
+    public String getMetrics() {
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long batchCount = batches.sum();
+        long accepted = requests.sum() - rejected.sum();
+        return "requests " + requests.sum() + "\n"
+                + "rejected " + rejected.sum() + "\n"
+                + "queued " + (queueCapacity - room.availablePermits()) + "\n"
+                + "puzzles " + puzzles.sum() + "\n"
+                + "solved " + solved.sum() + "\n"
+                + "exceeded " + exceeded.sum() + "\n"
+                + "failed " + failed.sum() + "\n"
+                + "hints " + (hints.getHits() + hints.getMisses()) + "\n"
+                + "hints_cached " + hints.getHits() + "\n"
+                + String.format("throughput %.1f puzzles/s%n", seconds == 0 ? 0 : puzzles.sum() / seconds)
+                + String.format("batch %.2f requests%n", batchCount == 0 ? 0 : (double) accepted / batchCount)
+                + "p50 " + latencies.getPercentile(50) + " us\n"
+                + "p99 " + latencies.getPercentile(99) + " us\n";
+    }
+
+    /**
+     * Parses the puzzles of a request and queues them, or refuses the request if the queue is full
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long arrived = System.nanoTime();
+        requests.increment();
+        if (!exchange.getRequestMethod().equals("POST")) {
+            send(exchange, 405, "Use POST with one puzzle per line.\n");
+            return;
+        }
+
+        // stop reading as soon as the request could never fit in the queue
+        List<Board> boards = new ArrayList<>();
+        int n;
+        try {
+            n = sizeOf(exchange);
+            long maxBytes = (long) queueCapacity * (n * n + LINE_SLACK);
+            String length = exchange.getRequestHeaders().getFirst("Content-Length");
+            if (length != null && Long.parseLong(length) > maxBytes) {
+                throw new TooLargeException("A request may be at most " + maxBytes + " bytes.");
+            }
+            InputStream body = new BoundedInputStream(exchange.getRequestBody(), maxBytes);
+            PuzzleReader reader = new PuzzleReader(Channels.newChannel(body), n);
+            Board board = new Board(n);
+            while (reader.next(board)) {
+                if (boards.size() == queueCapacity) {
+                    throw new TooLargeException("A request may hold at most " + queueCapacity + " puzzles.");
+                }
+                boards.add(board);
+                board = new Board(n);
+            }
+        } catch (TooLargeException e) {
+            send(exchange, 413, e.getMessage() + "\n");
+            return;
+        } catch (IllegalArgumentException | IOException e) {
+            send(exchange, 400, e.getMessage() + "\n");
+            return;
+        }
+        if (boards.isEmpty()) {
+            send(exchange, 400, "The request holds no puzzles.\n");
+            return;
+        }
+
+        // push back rather than queue more work than the workers can get through
+        if (!room.tryAcquire(boards.size())) {
+            rejected.increment();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 429, "The solve queue is full.\n");
+            return;
+        }
+        queue.add(new Job(exchange, n, boards, arrived));
+    }
+
+    /**
+     * Answers the next logical step for the one board of a request, or 422 if there is none
+     */
+    private void handleHint(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestMethod().equals("POST")) {
+            send(exchange, 405, "Use POST with one puzzle.\n");
+            return;
+        }
+        Board board;
+        try {
+            int n = sizeOf(exchange);
+            InputStream body = new BoundedInputStream(exchange.getRequestBody(), n * n + LINE_SLACK);
+            PuzzleReader reader = new PuzzleReader(Channels.newChannel(body), n);
+            board = new Board(n);
+            if (!reader.next(board)) throw new IllegalArgumentException("The request holds no puzzle.");
+            if (reader.next(new Board(n))) throw new IllegalArgumentException("A hint request holds one puzzle.");
+        } catch (TooLargeException e) {
+            send(exchange, 413, e.getMessage() + "\n");
+            return;
+        } catch (IllegalArgumentException | IOException e) {
+            send(exchange, 400, e.getMessage() + "\n");
+            return;
+        }
+        Hint hint = hints.next(board);
+        if (hint == null) send(exchange, 422, "The board is full, contradicts itself, or needs a guess.\n");
+        else send(exchange, 200, hint + "\n");
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        send(exchange, 200, getMetrics());
+    }
+
+    /**
+     * Takes every request that is waiting, up to MAX_BATCH, and solves them with this thread's engine
+     * A job whose solve throws is answered 500 and the worker carries on with a new engine, so a failure never
+     * costs a worker or the queue room the job held.
+     */
+    private void work() {
+        SolverEngine engine = engineFactory.get();
+        List<Job> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                batches.increment();
+                for (Job job : batch) {
+                    try {
+                        solve(engine, job);
+                    } catch (Throwable e) {
+                        // errors too, such as a recursive engine overflowing its stack on a large board
+                        failed.increment();
+                        engine = engineFactory.get();
+                        job.fail(e);
+                    } finally {
+                        room.release(job.boards.size());
+                    }
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Solves the puzzles of a request within its solve timeout and answers it
+     */
+    private void solve(SolverEngine engine, Job job) {
+        SolveOptions options = SolveOptions.NONE.withDeadline(job.arrived + solveTimeoutNanos);
+        int count = 0;
+        int over = 0;
+        for (Board board : job.boards) {
+            SolveStatus status = engine.solve(board, options);
+            if (status == SolveStatus.SOLVED) count++;
+            else if (status == SolveStatus.BUDGET_EXCEEDED) over++;
+        }
+        puzzles.add(job.boards.size());
+        solved.add(count);
+        exceeded.add(over);
+        job.respond(count);
+    }
+
+    /**
+     * @return the board size given by the n query parameter, 9 if there is none
+     */
+    private static int sizeOf(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null) return 9;
+        for (String parameter : query.split("&")) {
+            if (parameter.startsWith("n=")) {
+                try {
+                    return Integer.parseInt(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("The board size must be a number.");
+                }
+            }
+        }
+        return 9;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * A queued request and the puzzles parsed from it
+     */
+    private final class Job {
+
+        private final HttpExchange exchange;
+        private final int n;
+        private final List<Board> boards;
+        private final long arrived;
+
+        private Job(HttpExchange exchange, int n, List<Board> boards, long arrived) {
+            this.exchange = exchange;
+            this.n = n;
+            this.boards = boards;
+            this.arrived = arrived;
+        }
+
+        /**
+         * Writes the solutions, one per line, and records the latency of the request
+         * @param solvedCount the number of puzzles that were solved
+         */
+        private void respond(int solvedCount) {
+            // send the body with a known length rather than chunked
+            ByteArrayOutputStream body = new ByteArrayOutputStream(boards.size() * (n * n + 1));
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.getResponseHeaders().set("X-Solved", String.valueOf(solvedCount));
+            try (PuzzleWriter writer = new PuzzleWriter(Channels.newChannel(body), n)) {
+                for (Board board : boards) writer.write(board);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            try (OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(200, body.size());
+                body.writeTo(out);
+            } catch (IOException e) {
+                // the client went away, there is no one left to tell
+                exchange.close();
+            }
+            latencies.record(System.nanoTime() - arrived);
+        }
+
+        /**
+         * Answers 500 for a request whose solve failed
+         * @param cause what went wrong
+         */
+        private void fail(Throwable cause) {
+            try {
+                send(exchange, 500, "The solve failed: " + cause + "\n");
+            } catch (IOException | RuntimeException e) {
+                // the client went away or the response was already started, there is nothing more to send
+                exchange.close();
+            }
+        }
+    }
+
+    /**
+     * Thrown when a request body holds more than the queue could ever take
+     */
+    private static final class TooLargeException extends IOException {
+
+        private TooLargeException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * An input stream that fails once more than a fixed number of bytes have been read from it
+     */
+    private static final class BoundedInputStream extends FilterInputStream {
+
+        private final long limit;
+        private long read;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count(1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = super.read(bytes, offset, length);
+            if (count > 0) count(count);
+            return count;
+        }
+
+        private void count(int bytes) throws TooLargeException {
+            read += bytes;
+            if (read > limit) throw new TooLargeException("A request may be at most " + limit + " bytes.");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int workerCount = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_QUEUE_CAPACITY;
+        Duration solveTimeout = args.length > 3 ? Duration.ofMillis(Long.parseLong(args[3])) : DEFAULT_SOLVE_TIMEOUT;
+        SolveServer server = new SolveServer(port, workerCount, queueCapacity, DancingLinksSolver::new, solveTimeout);
+        server.start();
+        System.out.println("Solving on http://localhost:" + server.getPort() + "/solve with " + workerCount
+                + " workers, hints on /hint, metrics on /metrics");
+    }
+}
@@ -0,0 +1,156 @@
+package sudoku.vector;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import sudoku.CandidateKernel;
+import sudoku.ScalarCandidateKernel;
+import sudoku.SudokuLayout;
+
+import java.util.Arrays;
+
+/**
+ * A CandidateKernel that works on a whole vector of cells at a time with the incubating Vector API
+ * The board is copied into rows padded to a multiple of the vector length, one bit per cell, so every load and
+ * store is a full vector. The rows are then ORed lane by lane into the masks of the columns and of the band of
+ * sections they lie in. The candidates of a vector of cells are the numbers missing from its row, columns and
+ * sections, and their popcounts pick the most constrained cell with a lane-wise min and a single final reduction.
+ * Running it needs --add-modules jdk.incubator.vector. An instance is not thread safe but can be reused for any
+ * number of boards without reallocating.
+ * @author Ben Cullivan
+ */
+public final class VectorCandidateKernel implements CandidateKernel {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    /**
+     * scratch state, allocated once per board size, with rows padded to stride longs
+     */
+    private int n;
+    private int root;
+    private int stride;
+    private long[] bits;
+    private long[] rows;
+    private long[] columns;
+    private long[] band;
+    private long[] sections;
+    private long[] padded;
+    private long[] cellIndex;
+    private long[] keys;
+
+    private VectorCandidateKernel() {
+    }
+
+    /**
+     * @return a vector kernel if the CPU has vectors of at least four longs, otherwise a ScalarCandidateKernel,
+     *         which is faster on narrower vectors
+     */
+    public static CandidateKernel create() {
+        return SPECIES.length() >= 4 ? new VectorCandidateKernel() : new ScalarCandidateKernel();
+    }
+
+    @Override
+    public int compute(byte[] cells, int offset, int n, long[] candidates) {
+        if (this.n != n) allocate(n);
+        int lanes = SPECIES.length();
+
+        // one bit per cell: 1L << (num - 1) for a number and 1L << 63 for a blank, with padding lanes left at 0,
+        // ORing each row on the way since a lane reduction per row costs more than the scalar ORs
+        for (int row = 0; row < n; row++) {
+            long rowMask = 0;
+            for (int column = 0; column < n; column++) {
+                long bit = 1L << (cells[offset + row * n + column] - 1);
+                bits[row * stride + column] = bit;
+                rowMask |= bit;
+            }
+            rows[row] = rowMask;
+        }
+
+        // OR every row into the column and section masks a band at a time; every vector is loaded and stored
+        // within one iteration, since Java 17 boxes vectors that are carried around a loop
+        Arrays.fill(columns, 0);
+        for (int b = 0; b < root; b++) {
+            Arrays.fill(band, 0);
+            for (int row = b * root; row < b * root + root; row++) {
+                for (int c = 0; c < stride; c += lanes) {
+                    LongVector.fromArray(SPECIES, band, c).or(LongVector.fromArray(SPECIES, bits, row * stride + c))
+                            .intoArray(band, c);
+                }
+            }
+            for (int c = 0; c < stride; c += lanes) {
+                LongVector.fromArray(SPECIES, columns, c).or(LongVector.fromArray(SPECIES, band, c))
+                        .intoArray(columns, c);
+            }
+            // spread the mask of each section over its columns, so the band can be read a vector at a time
+            for (int s = 0; s < root; s++) {
+                long mask = 0;
+                for (int column = s * root; column < s * root + root; column++) mask |= band[column];
+                for (int column = s * root; column < s * root + root; column++) sections[b * stride + column] = mask;
+            }
+        }
+
+        // the candidates are the numbers no unit of the cell uses, and filled and padding cells get none; the most
+        // constrained cell is the smallest key count << 32 | cell, kept lane by lane and reduced once at the end
+        long full = (1L << n) - 1;
+        Arrays.fill(keys, Long.MAX_VALUE);
+        for (int row = 0; row < n; row++) {
+            long rowMask = rows[row];
+            int sectionRow = row / root * stride;
+            for (int c = 0; c < stride; c += lanes) {
+                int index = row * stride + c;
+                // all ones in the lanes of empty cells and all zeros elsewhere, which is cheaper than a mask
+                LongVector empty = LongVector.fromArray(SPECIES, bits, index).lanewise(VectorOperators.ASHR, 63);
+                LongVector used = LongVector.fromArray(SPECIES, columns, c)
+                        .or(LongVector.fromArray(SPECIES, sections, sectionRow + c)).or(rowMask);
+                LongVector mask = LongVector.broadcast(SPECIES, full)
+                        .lanewise(VectorOperators.AND_NOT, used).and(empty);
+                mask.intoArray(padded, index);
+
+                // filled lanes get the largest key, Long.MAX_VALUE, by ORing in the inverted lane mask shifted right
+                LongVector key = bitCount(mask).lanewise(VectorOperators.LSHL, 32)
+                        .or(LongVector.fromArray(SPECIES, cellIndex, index))
+                        .or(empty.not().lanewise(VectorOperators.LSHR, 1));
+                LongVector.fromArray(SPECIES, keys, c).min(key).intoArray(keys, c);
+            }
+            System.arraycopy(padded, row * stride, candidates, row * n, n);
+        }
+        long key = Long.MAX_VALUE;
+        for (long k : keys) key = Math.min(key, k);
+        return key == Long.MAX_VALUE ? -1 : (int) key;
+    }
+
+    /**
+     * Counts the set bits of every lane with shifts, masks and one multiply, since the Vector API of Java 17 has no
+     * bit count operator
+     * @param x the masks
+     * @return the number of bits set in each lane
+     */
+    private static LongVector bitCount(LongVector x) {
+        x = x.sub(x.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        x = x.and(0x3333333333333333L).add(x.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        x = x.add(x.lanewise(VectorOperators.LSHR, 4)).and(0x0f0f0f0f0f0f0f0fL);
+        return x.mul(0x0101010101010101L).lanewise(VectorOperators.LSHR, 56);
+    }
+
+    /**
+     * Allocates the scratch state for a board size
+     * @param n the height and width of the sudoku
+     */
+    private void allocate(int n) {
+        this.n = n;
+        root = SudokuLayout.forSize(n).getRoot();
+        int lanes = SPECIES.length();
+        stride = (n + lanes - 1) / lanes * lanes;
+        bits = new long[n * stride];
+        rows = new long[n];
+        columns = new long[stride];
+        band = new long[stride];
+        sections = new long[root * stride];
+        padded = new long[n * stride];
+        cellIndex = new long[n * stride];
+        for (int row = 0; row < n; row++) {
+            for (int column = 0; column < n; column++) cellIndex[row * stride + column] = row * n + column;
+        }
+        keys = new long[stride];
+    }
+}